@@ -8,6 +8,7 @@ plugins {
 
     id("com.github.johnrengelman.shadow") version "7.1.0"
     id("dev.s7a.gradle.minecraft.server") version "2.0.0"
+    id("me.champeau.jmh") version "0.6.6"
 }
 
 val gitCommitHash = ProcessBuilder("git", "rev-parse", "--verify", "--short", "HEAD")
@@ -41,8 +42,21 @@ dependencies {
         implementation(auroraJdbcImplementation)
     }
 
+    // paper-api is only compileOnly above, but the tests load classes which reference it
+    testImplementation("io.papermc.paper:paper-api:1.18.1-R0.1-SNAPSHOT")
     testImplementation("org.junit.jupiter:junit-jupiter:5.8.2")
     testImplementation("com.github.seeseemelk:MockBukkit-v1.18:1.15.5")
+
+    // benchmarks run against MockBukkit worlds and an in-memory H2 database
+    jmh("io.papermc.paper:paper-api:1.18.1-R0.1-SNAPSHOT")
+    jmh("com.github.seeseemelk:MockBukkit-v1.18:1.15.5")
+    jmh("com.h2database:h2:2.0.202")
+
+    // the other embedded backends compared by the database benchmark
+    jmh("org.hsqldb:hsqldb:2.6.1")
+    jmh("org.apache.derby:derby:10.15.2.0")
+    jmh("org.apache.derby:derbytools:10.15.2.0")
+    jmh("org.xerial:sqlite-jdbc:3.36.0.3")
 }
 
 val targetJavaVersion = 17
@@ -78,6 +92,50 @@ tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+jmh {
+    // One result file per commit, so runs can be compared against each other
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/aurora-$gitCommitHash.json"))
+
+    // Restrict a run to some benchmarks with -PjmhIncludes=<regex>
+    (findProperty("jmhIncludes") as String?)?.let { includes.set(listOf(it)) }
+}
+
+task<JavaExec>("loadTest") {
+    description = "Replays synthetic events against Aurora's listeners and reports handler latencies."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("de.lmichaelis.aurora.loadtest.LoadTest")
+
+    // Options are passed like -PloadTestArgs="--claims=100000 --scenarios=flow,piston"
+    args = (findProperty("loadTestArgs") as String?)?.split(" ")?.filter { it.isNotBlank() } ?: listOf()
+
+    // The plugin creates its configured database in the working directory before the synthetic one is swapped in
+    workingDir = buildDir.resolve("loadtest")
+    doFirst { workingDir.mkdirs() }
+}
+
+task<JavaExec>("replayTrace") {
+    description = "Replays a recorded event trace against a claim database snapshot and reports handler latencies."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("de.lmichaelis.aurora.loadtest.TraceReplay")
+
+    // Options are passed like -PtraceArgs="--trace=events.trace --database=jdbc:h2:/tmp/snapshot/aurora"
+    args = (findProperty("traceArgs") as String?)?.split(" ")?.filter { it.isNotBlank() } ?: listOf()
+
+    workingDir = buildDir.resolve("loadtest")
+    doFirst { workingDir.mkdirs() }
+}
+
+task<JavaExec>("databaseBenchmark") {
+    description = "Benchmarks Aurora's statements against every embedded database backend and writes a comparison."
+    dependsOn("jmhJar")
+
+    // The benchmark JAR contains the generated benchmark code and all drivers
+    classpath = files(tasks.named<Jar>("jmhJar").flatMap { it.archiveFile })
+    mainClass.set("de.lmichaelis.aurora.benchmark.BackendComparison")
+    args = listOf(buildDir.resolve("results/jmh/backends-$gitCommitHash.md").path)
+}
+
 task<LaunchMinecraftServerTask>("launchServer") {
     dependsOn("shadowJar")
 
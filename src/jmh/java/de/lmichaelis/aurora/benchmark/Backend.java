@@ -0,0 +1,80 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * The embedded database backends supported by ORMLite which run without a separate server.
+ */
+public enum Backend {
+	H2("org.h2.Driver", "com.h2database:h2:2.0.202",
+			"jdbc:h2:%s", "jdbc:h2:./plugins/Aurora/aurora"),
+	HSQLDB("org.hsqldb.jdbc.JDBCDriver", "org.hsqldb:hsqldb:2.6.1",
+			"jdbc:hsqldb:file:%s;shutdown=true", "jdbc:hsqldb:file:./plugins/Aurora/aurora;shutdown=true"),
+	DERBY("org.apache.derby.jdbc.EmbeddedDriver", "org.apache.derby:derby:10.15.2.0",
+			"jdbc:derby:%s;create=true", "jdbc:derby:./plugins/Aurora/aurora;create=true"),
+	SQLITE("org.sqlite.JDBC", "org.xerial:sqlite-jdbc:3.36.0.3",
+			"jdbc:sqlite:%s.db", "jdbc:sqlite:./plugins/Aurora/aurora.db");
+
+	/**
+	 * The class name of the JDBC driver.
+	 */
+	public final @NotNull String driver;
+
+	/**
+	 * The artifact to set as <tt>auroraJdbcImplementation</tt> to bundle the driver with the plugin.
+	 */
+	public final @NotNull String artifact;
+
+	/**
+	 * The <tt>databaseUri</tt> to put into the plugin's configuration to use this backend.
+	 */
+	public final @NotNull String configUri;
+
+	private final @NotNull String uriTemplate;
+
+	Backend(final @NotNull String driver, final @NotNull String artifact, final @NotNull String uriTemplate,
+			final @NotNull String configUri) {
+		this.driver = driver;
+		this.artifact = artifact;
+		this.uriTemplate = uriTemplate;
+		this.configUri = configUri;
+	}
+
+	/**
+	 * Loads the JDBC driver and returns the URI of an on-disk database.
+	 *
+	 * @param directory The directory to store the database in.
+	 * @return The JDBC URI of the database.
+	 */
+	public @NotNull String open(final @NotNull File directory) {
+		// All drivers end up in a single JAR whose service registrations overwrite each other, so load them explicitly
+		try {
+			Class.forName(driver);
+		} catch (ClassNotFoundException e) {
+			throw new IllegalStateException("The JDBC driver of %s is missing".formatted(this), e);
+		}
+
+		return uriTemplate.formatted(new File(directory, "aurora").getAbsolutePath());
+	}
+
+	/**
+	 * Releases the files of an on-disk database after its connections were closed.
+	 *
+	 * @param directory The directory the database is stored in.
+	 */
+	public void close(final @NotNull File directory) {
+		if (this != DERBY) return;
+
+		try {
+			DriverManager.getConnection("jdbc:derby:%s;shutdown=true".formatted(new File(directory, "aurora").getAbsolutePath()));
+		} catch (SQLException ignored) {
+			// Derby always reports a successful shutdown as an exception
+		}
+	}
+}
@@ -0,0 +1,141 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.benchmark;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Runs the {@link DatabaseBackendBenchmark} and writes a Markdown report comparing the embedded backends,
+ * together with the configuration needed to use each of them.
+ * <p>
+ * The only argument is the file to write the report to.
+ */
+public final class BackendComparison {
+	private static final String[] OPERATIONS = {"pointLookup", "overlapCount", "subclaims", "claimsByOwner", "userUpdateBurst"};
+
+	// operation -> owner index -> backend -> average time in microseconds
+	private final Map<String, Map<Boolean, EnumMap<Backend, Double>>> scores = new LinkedHashMap<>();
+
+	private BackendComparison(final @NotNull Collection<RunResult> results) {
+		for (final var operation : OPERATIONS) {
+			scores.put(operation, new LinkedHashMap<>());
+		}
+
+		for (final var result : results) {
+			final var params = result.getParams();
+			final var benchmark = params.getBenchmark();
+			final var operation = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+
+			scores.get(operation)
+					.computeIfAbsent(Boolean.parseBoolean(params.getParam("ownerIndex")), i -> new EnumMap<>(Backend.class))
+					.put(Backend.valueOf(params.getParam("backend")), result.getPrimaryResult().getScore());
+		}
+	}
+
+	private double score(final @NotNull String operation, final boolean ownerIndex, final @NotNull Backend backend) {
+		final var byBackend = scores.get(operation).get(ownerIndex);
+		return byBackend == null ? Double.NaN : byBackend.getOrDefault(backend, Double.NaN);
+	}
+
+	/**
+	 * Ranks the backends by the geometric mean of their times across all operations, so that no single slow
+	 * operation dominates.
+	 */
+	private @NotNull EnumMap<Backend, Double> geometricMeans(final boolean ownerIndex) {
+		final var means = new EnumMap<Backend, Double>(Backend.class);
+
+		for (final var backend : Backend.values()) {
+			var sum = 0.0;
+			for (final var operation : OPERATIONS) sum += Math.log(score(operation, ownerIndex, backend));
+			means.put(backend, Math.exp(sum / OPERATIONS.length));
+		}
+
+		return means;
+	}
+
+	private void write(final @NotNull PrintWriter out) {
+		out.println("# Embedded database backends");
+		out.println();
+		out.println("Average time per operation in µs (lower is better), with 10000 claims stored on disk.");
+
+		for (final var ownerIndex : new boolean[]{false, true}) {
+			out.println();
+			out.println(ownerIndex ? "## With an index on `claims.owner`" : "## Aurora's schema");
+			out.println();
+			out.print("| Operation |");
+			for (final var backend : Backend.values()) out.printf(" %s |", backend);
+			out.println();
+			out.print("|---|");
+			for (final var ignored : Backend.values()) out.print("---:|");
+			out.println();
+
+			for (final var operation : OPERATIONS) {
+				out.printf("| %s |", operation);
+				for (final var backend : Backend.values()) {
+					out.printf(Locale.ROOT, " %.1f |", score(operation, ownerIndex, backend));
+				}
+				out.println();
+			}
+
+			out.print("| *geometric mean* |");
+			for (final var mean : geometricMeans(ownerIndex).values()) out.printf(Locale.ROOT, " *%.1f* |", mean);
+			out.println();
+		}
+
+		final var best = geometricMeans(true).entrySet().stream()
+				.filter(e -> !e.getValue().isNaN())
+				.min(Map.Entry.comparingByValue())
+				.map(Map.Entry::getKey)
+				.orElse(Backend.H2);
+
+		out.println();
+		out.println("## Recommendation");
+		out.println();
+		out.printf("%s is the fastest backend overall. ", best);
+		out.println("Build the plugin with `-PauroraJdbcImplementation=<artifact>` to bundle another driver and set "
+				+ "`databaseUri` accordingly:");
+		out.println();
+		out.println("| Backend | `auroraJdbcImplementation` | `databaseUri` | `claimsByOwner` speedup from the owner index |");
+		out.println("|---|---|---|---:|");
+
+		for (final var backend : Backend.values()) {
+			out.printf(Locale.ROOT, "| %s | `%s` | `%s` | %.1fx |%n", backend, backend.artifact, backend.configUri,
+					score("claimsByOwner", false, backend) / score("claimsByOwner", true, backend));
+		}
+
+		out.println();
+		out.println("If the owner index pays off for your backend, create it once with "
+				+ "`CREATE INDEX claims_owner_idx ON claims (owner)`.");
+	}
+
+	public static void main(final String @NotNull [] args) throws RunnerException, IOException {
+		if (args.length != 1) throw new IllegalArgumentException("Usage: BackendComparison <report file>");
+
+		final var options = new OptionsBuilder()
+				.include(DatabaseBackendBenchmark.class.getName())
+				.build();
+
+		final var comparison = new BackendComparison(new Runner(options).run());
+		final var file = new File(args[0]);
+		file.getParentFile().mkdirs();
+
+		try (final var out = new PrintWriter(file)) {
+			comparison.write(out);
+		}
+
+		System.out.printf("Wrote the backend comparison to %s%n", file);
+	}
+}
@@ -0,0 +1,101 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.benchmark;
+
+import de.lmichaelis.aurora.model.Claim;
+import de.lmichaelis.aurora.model.Group;
+import org.bukkit.OfflinePlayer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures permission checks in claims with different numbers of trustees, both with a warm group cache
+ * and with a cache which is invalidated before every check (i.e. right after a claim was changed).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClaimGroupBenchmark {
+	private static final int PROBES = 1024;
+
+	@Param({"1000"})
+	public int claims;
+
+	@Param({"0", "10", "100", "500"})
+	public int trustees;
+
+	private SyntheticWorld world;
+	private Claim[] probeClaims;
+	private Claim[] probeSubClaims;
+	private OfflinePlayer[] probePlayers;
+	private OfflinePlayer stranger;
+	private int next = 0;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		final var random = new Random(0xA0A0);
+		world = SyntheticWorld.create(claims, trustees, 0x5EED);
+		stranger = world.server.getOfflinePlayer(new UUID(0, 0));
+		probeClaims = new Claim[PROBES];
+		probeSubClaims = new Claim[PROBES];
+		probePlayers = new OfflinePlayer[PROBES];
+
+		for (int i = 0; i < PROBES; i++) {
+			// Every fourth claim has a sub-claim, see SyntheticWorld
+			final var claim = world.claims.get(random.nextInt(world.claims.size() / 4) * 4);
+
+			probeClaims[i] = claim;
+			probeSubClaims[i] = claim.getSubClaims().get(0);
+			probePlayers[i] = trustees == 0 ? stranger : world.trustees.get(random.nextInt(trustees));
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		world.close();
+	}
+
+	@Benchmark
+	public Group trustee() {
+		final var i = next++ & (PROBES - 1);
+		return probeClaims[i].getGroup(probePlayers[i]);
+	}
+
+	@Benchmark
+	public Group stranger() {
+		return probeClaims[next++ & (PROBES - 1)].getGroup(stranger);
+	}
+
+	@Benchmark
+	public Group inheritedTrustee() {
+		final var i = next++ & (PROBES - 1);
+		return probeSubClaims[i].getGroup(probePlayers[i]);
+	}
+
+	@Benchmark
+	public Group trusteeAfterChange() {
+		final var i = next++ & (PROBES - 1);
+
+		// Any change to a claim invalidates all cached groups
+		Claim.revision++;
+		return probeSubClaims[i].getGroup(probePlayers[i]);
+	}
+}
@@ -0,0 +1,123 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.benchmark;
+
+import de.lmichaelis.aurora.AuroraUtil;
+import de.lmichaelis.aurora.model.Claim;
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the claim lookups done by nearly every listener: finding the claim at a block, checking
+ * whether an area intersects a claim, finding the nearest claim and neutralizing explosions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClaimLookupBenchmark {
+	private static final int PROBES = 4096;
+	private static final int EXPLOSION_RADIUS = 4;
+
+	@Param({"1000", "10000", "100000"})
+	public int claims;
+
+	private SyntheticWorld world;
+	private Location[] points;
+	private Location[] areaCorners;
+	private List<List<Block>> explosions;
+	private int next = 0;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		final var random = new Random(0xA0A0);
+		world = SyntheticWorld.create(claims, 0, 0x5EED);
+		points = new Location[PROBES];
+		areaCorners = new Location[PROBES * 2];
+		explosions = new ArrayList<>(64);
+
+		for (int i = 0; i < PROBES; i++) {
+			points[i] = randomLocation(random);
+
+			// Areas the size of a typical new claim
+			final var corner = randomLocation(random);
+			areaCorners[i * 2] = corner;
+			areaCorners[i * 2 + 1] = corner.clone().add(8 + random.nextInt(32), 0, 8 + random.nextInt(32));
+		}
+
+		for (int i = 0; i < 64; i++) {
+			final var center = randomLocation(random);
+			final var blocks = new ArrayList<Block>();
+
+			for (int x = -EXPLOSION_RADIUS; x <= EXPLOSION_RADIUS; x++) {
+				for (int y = -EXPLOSION_RADIUS; y <= EXPLOSION_RADIUS; y++) {
+					for (int z = -EXPLOSION_RADIUS; z <= EXPLOSION_RADIUS; z++) {
+						if (x * x + y * y + z * z > EXPLOSION_RADIUS * EXPLOSION_RADIUS) continue;
+						blocks.add(world.world.getBlockAt(center.getBlockX() + x, center.getBlockY() + y, center.getBlockZ() + z));
+					}
+				}
+			}
+
+			explosions.add(blocks);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		world.close();
+	}
+
+	private Location randomLocation(final Random random) {
+		return new Location(
+				world.world,
+				random.nextInt(world.extent * 2) - world.extent,
+				50 + random.nextInt(40),
+				random.nextInt(world.extent * 2) - world.extent
+		);
+	}
+
+	@Benchmark
+	public Claim getClaim() {
+		return Claim.getClaim(points[next++ & (PROBES - 1)]);
+	}
+
+	@Benchmark
+	public boolean intersects() {
+		final var i = next++ & (PROBES - 1);
+		return Claim.intersects(areaCorners[i * 2], areaCorners[i * 2 + 1], true);
+	}
+
+	@Benchmark
+	public Claim findNearest() {
+		final var point = points[next++ & (PROBES - 1)];
+		return Claim.findNearest(world.world, point.getBlockX(), point.getBlockZ(), 256);
+	}
+
+	@Benchmark
+	public List<Block> neutralizeExplosion() {
+		// The affected blocks are modified in place, so work on a copy
+		final var blocks = new ArrayList<>(explosions.get(next++ & 63));
+		AuroraUtil.neutralizeExplosion(blocks);
+		return blocks;
+	}
+}
@@ -0,0 +1,156 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.benchmark;
+
+import de.lmichaelis.aurora.model.Claim;
+import de.lmichaelis.aurora.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the statements Aurora sends to its database against every embedded backend, with the database stored
+ * on disk like on a real server. Claim lookups during events are served from memory, so these are the
+ * statements players wait for when they manage claims, and which run when users are saved.
+ * <p>
+ * Run it through <tt>./gradlew databaseBenchmark</tt>, which also writes a comparison report.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatabaseBackendBenchmark {
+	private static final int BURST_SIZE = 50;
+
+	@Param({"H2", "HSQLDB", "DERBY", "SQLITE"})
+	public Backend backend;
+
+	@Param({"10000"})
+	public int claims;
+
+	// The owner column isn't indexed by Aurora's schema, which claims-by-owner queries suffer from
+	@Param({"false", "true"})
+	public boolean ownerIndex;
+
+	private File directory;
+	private SyntheticWorld world;
+	private final List<Claim> parents = new ArrayList<>();
+	private final List<User> users = new ArrayList<>();
+	private int next = 0;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, SQLException {
+		directory = Files.createTempDirectory("aurora-" + backend.name().toLowerCase(Locale.ROOT)).toFile();
+		world = SyntheticWorld.create(claims, 10, 0x5EED, backend.open(directory));
+
+		if (ownerIndex) world.database.claims.executeRawNoArgs("CREATE INDEX claims_owner_idx ON claims (owner)");
+
+		for (int i = 0; i < world.claims.size(); i += 4) {
+			parents.add(world.claims.get(i));
+		}
+
+		final var random = new Random(0xA0A0);
+		for (int i = 0; i < BURST_SIZE; i++) {
+			final var user = new User(new UUID(random.nextLong(), random.nextLong()), 100);
+			world.database.users.create(user);
+			users.add(user);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		world.close();
+		backend.close(directory);
+
+		try (final var files = Files.walk(directory.toPath())) {
+			files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	private Claim nextClaim() {
+		return world.claims.get(next++ % world.claims.size());
+	}
+
+	/**
+	 * Reloads a claim by its id, like refreshing a claim does.
+	 */
+	@Benchmark
+	public Claim pointLookup() throws SQLException {
+		return world.database.claims.queryForId(nextClaim().id);
+	}
+
+	/**
+	 * Counts the claims overlapping an area, like checking a new claim for conflicts without the claim index.
+	 */
+	@Benchmark
+	public long overlapCount() throws SQLException {
+		final var claim = nextClaim();
+		final var query = world.database.claims.queryBuilder();
+		query.setCountOf(true);
+		query.where()
+				.eq("world", claim.world)
+				.and().le("min_x", claim.maxX + 16)
+				.and().ge("max_x", claim.minX - 16)
+				.and().le("min_z", claim.maxZ + 16)
+				.and().ge("max_z", claim.minZ - 16);
+
+		return world.database.claims.countOf(query.prepare());
+	}
+
+	/**
+	 * Loads the sub-claims of a claim.
+	 */
+	@Benchmark
+	public List<Claim> subclaims() throws SQLException {
+		final var parent = parents.get(next++ % parents.size());
+		return world.database.claims.queryBuilder().where().eq("parent_id", parent).query();
+	}
+
+	/**
+	 * Loads all claims of a player, like <tt>/aurora claimlist</tt> does.
+	 */
+	@Benchmark
+	public List<Claim> claimsByOwner() throws SQLException {
+		return world.database.claims.queryBuilder().where().eq("owner", nextClaim().owner).query();
+	}
+
+	/**
+	 * Saves a batch of users one after another, like accruing claim blocks for everyone online does.
+	 */
+	@Benchmark
+	public int userUpdateBurst() throws SQLException {
+		var updated = 0;
+
+		for (final var user : users) {
+			user.totalClaimBlocks++;
+			updated += world.database.users.update(user);
+		}
+
+		return updated;
+	}
+}
@@ -0,0 +1,169 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.benchmark;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.WorldMock;
+import de.lmichaelis.aurora.Aurora;
+import de.lmichaelis.aurora.Database;
+import de.lmichaelis.aurora.model.Claim;
+import de.lmichaelis.aurora.model.Group;
+import de.lmichaelis.aurora.model.UserGroup;
+import org.bukkit.Location;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * A mocked server with a world full of randomly sized claims, backed by an in-memory H2 database by default.
+ * Claims are laid out on a grid of 64x64 block cells, one claim per cell, and every fourth claim contains a
+ * sub-claim. All claims have the same set of trustees with random groups.
+ */
+public final class SyntheticWorld {
+	public static final int CELL_SIZE = 64;
+
+	public final ServerMock server;
+	public final WorldMock world;
+	public final List<Claim> claims = new ArrayList<>();
+	public final List<OfflinePlayer> trustees = new ArrayList<>();
+
+	// The world's claims span the blocks from -extent to extent on both axes
+	public final int extent;
+
+	public final Database database;
+
+	private SyntheticWorld(final int claimCount, final int trusteeCount, final long seed, final @NotNull String uri)
+			throws SQLException {
+		final var random = new Random(seed);
+		final var side = (int) Math.ceil(Math.sqrt(claimCount));
+
+		this.server = MockBukkit.mock();
+		this.world = server.addSimpleWorld("world");
+		this.extent = side * CELL_SIZE / 2;
+
+		Aurora.logger = Logger.getLogger("aurora-benchmark");
+
+		for (int i = 0; i < trusteeCount; i++) {
+			trustees.add(server.getOfflinePlayer(new UUID(random.nextLong(), random.nextLong())));
+		}
+
+		// Populate the database first, then open it again so that the claim index loads it like on startup
+		final var setup = new Database(uri);
+		final var topLevel = new ArrayList<Claim>(claimCount);
+		final var subClaims = new ArrayList<Claim>(claimCount / 4);
+
+		for (int i = 0; i < claimCount; i++) {
+			final var sizeX = 8 + random.nextInt(CELL_SIZE - 16);
+			final var sizeZ = 8 + random.nextInt(CELL_SIZE - 16);
+			final var minX = (i % side) * CELL_SIZE - extent + random.nextInt(CELL_SIZE - sizeX);
+			final var minZ = (i / side) * CELL_SIZE - extent + random.nextInt(CELL_SIZE - sizeZ);
+
+			final var claim = new Claim(
+					new UUID(random.nextLong(), random.nextLong()), "claim-" + i,
+					new Location(world, minX, world.getMinHeight(), minZ),
+					new Location(world, minX + sizeX - 1, world.getMaxHeight(), minZ + sizeZ - 1)
+			);
+
+			claim.allowsExplosions = random.nextInt(4) == 0;
+			topLevel.add(claim);
+		}
+
+		setup.claims.create(topLevel);
+
+		for (int i = 0; i < topLevel.size(); i += 4) {
+			final var parent = topLevel.get(i);
+			subClaims.add(new Claim(
+					parent,
+					new Location(world, parent.minX + 2, 60, parent.minZ + 2),
+					new Location(world, parent.maxX - 2, 80, parent.maxZ - 2)
+			));
+		}
+
+		setup.claims.create(subClaims);
+
+		final var groups = new ArrayList<UserGroup>(trusteeCount * claimCount);
+		final var values = new Group[]{Group.MANAGE, Group.BUILD, Group.CONTAINERS, Group.ACCESS};
+
+		for (final var claim : topLevel) {
+			for (final var trustee : trustees) {
+				final var group = setup.userGroups.createObjectInstance();
+				group.claim = claim;
+				group.player = trustee.getUniqueId();
+				group.group = values[random.nextInt(values.length)];
+				groups.add(group);
+			}
+		}
+
+		setup.userGroups.create(groups);
+
+		try {
+			setup.onDisable();
+		} catch (IOException e) {
+			throw new SQLException(e);
+		}
+
+		this.database = new Database(uri);
+		Aurora.db = this.database;
+
+		for (final var claim : topLevel) {
+			claims.add(database.claimIndex.get(claim.id));
+		}
+	}
+
+	/**
+	 * Creates a new synthetic world and makes it the current database.
+	 *
+	 * @param claimCount   The number of top-level claims to create.
+	 * @param trusteeCount The number of trustees every top-level claim has.
+	 * @param seed         The seed of the random layout.
+	 * @return The new world.
+	 */
+	public static @NotNull SyntheticWorld create(final int claimCount, final int trusteeCount, final long seed) {
+		return create(claimCount, trusteeCount, seed, "jdbc:h2:mem:aurora-%d;DB_CLOSE_DELAY=-1".formatted(System.nanoTime()));
+	}
+
+	/**
+	 * Creates a new synthetic world in the given database and makes it the current database.
+	 *
+	 * @param claimCount   The number of top-level claims to create.
+	 * @param trusteeCount The number of trustees every top-level claim has.
+	 * @param seed         The seed of the random layout.
+	 * @param uri          The JDBC URI of an empty database.
+	 * @return The new world.
+	 */
+	public static @NotNull SyntheticWorld create(final int claimCount, final int trusteeCount, final long seed,
+												 final @NotNull String uri) {
+		try {
+			return new SyntheticWorld(claimCount, trusteeCount, seed, uri);
+		} catch (SQLException e) {
+			throw new IllegalStateException("Failed to create the synthetic world", e);
+		}
+	}
+
+	/**
+	 * Drops the database and stops the mocked server.
+	 */
+	public void close() {
+		try {
+			database.claims.executeRawNoArgs("SHUTDOWN");
+		} catch (SQLException ignored) {
+			// Only H2 and HSQLDB know this statement, and in-memory databases are gone either way
+		}
+
+		try {
+			database.onDisable();
+		} catch (IOException ignored) {
+			// Nothing left to clean up
+		}
+
+		MockBukkit.unmock();
+	}
+}
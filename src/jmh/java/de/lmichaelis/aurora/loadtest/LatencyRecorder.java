@@ -0,0 +1,62 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.loadtest;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Collects the latency of every handler invocation and reports throughput and percentiles per handler.
+ */
+public final class LatencyRecorder {
+	private final TreeMap<String, LongArrayList> samples = new TreeMap<>();
+
+	/**
+	 * Records one invocation of a handler.
+	 *
+	 * @param handler The name of the handler.
+	 * @param nanos   The time the handler took in nanoseconds.
+	 */
+	public void record(final @NotNull String handler, final long nanos) {
+		samples.computeIfAbsent(handler, h -> new LongArrayList()).add(nanos);
+	}
+
+	/**
+	 * Prints a table with the number of invocations, the throughput and the latency percentiles of every handler.
+	 *
+	 * @param out The stream to print to.
+	 */
+	public void report(final @NotNull PrintStream out) {
+		out.printf("%-52s %10s %12s %9s %9s %9s %9s %9s%n",
+				"handler", "count", "events/s", "p50 µs", "p90 µs", "p99 µs", "p99.9 µs", "max µs");
+
+		for (final Map.Entry<String, LongArrayList> entry : samples.entrySet()) {
+			final var values = entry.getValue().toLongArray();
+			Arrays.sort(values);
+
+			long total = 0;
+			for (final var value : values) total += value;
+
+			out.printf("%-52s %10d %12.0f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+					entry.getKey(),
+					values.length,
+					values.length / (total / 1e9),
+					percentile(values, 0.5),
+					percentile(values, 0.9),
+					percentile(values, 0.99),
+					percentile(values, 0.999),
+					values[values.length - 1] / 1e3
+			);
+		}
+	}
+
+	private static double percentile(final long @NotNull [] sorted, final double fraction) {
+		final var index = (int) Math.ceil(fraction * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e3;
+	}
+}
@@ -0,0 +1,175 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.loadtest;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import de.lmichaelis.aurora.Aurora;
+import de.lmichaelis.aurora.EntityClaimCache;
+import de.lmichaelis.aurora.benchmark.SyntheticWorld;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Replays a synthetic stream of events against Aurora's listeners in a mocked server with a populated claim
+ * database, and reports the throughput and latency of every handler. Use it to estimate how Aurora copes
+ * with a world before enabling it there.
+ * <p>
+ * Options are passed as <tt>--name=value</tt>:
+ * <ul>
+ *     <li><tt>claims</tt>: The number of claims in the world (default 10000)</li>
+ *     <li><tt>players</tt>: The number of online players (default 50)</li>
+ *     <li><tt>mobs</tt>: The number of mobs, half of them in claims (default 200)</li>
+ *     <li><tt>events</tt>: The number of events to replay (default 1000000)</li>
+ *     <li><tt>warmup</tt>: The number of events to replay before measuring (default 200000)</li>
+ *     <li><tt>scenarios</tt>: A comma-separated list of {@link Scenario}s to mix (default all)</li>
+ *     <li><tt>seed</tt>: The seed of the world and the event stream (default 1)</li>
+ * </ul>
+ */
+public final class LoadTest {
+	private final HashMap<String, String> options = new HashMap<>();
+	private final SyntheticWorld world;
+	private final Scenario.Population population;
+	private final Scenario[] scenarios;
+	private final int[] cumulativeWeights;
+	private final TimedDispatcher dispatcher;
+
+	private LoadTest(final String @NotNull [] args) throws IOException {
+		for (final var arg : args) {
+			final var separator = arg.indexOf('=');
+			if (!arg.startsWith("--") || separator < 0) throw new IllegalArgumentException("Invalid option: " + arg);
+			options.put(arg.substring(2, separator), arg.substring(separator + 1));
+		}
+
+		final var seed = getOption("seed", 1);
+		final var random = new Random(seed);
+
+		this.world = SyntheticWorld.create(getOption("claims", 10000), 10, seed);
+
+		// Loading the plugin connects to the configured database, so swap in the synthetic one afterwards
+		Aurora.db = null;
+		final var plugin = MockBukkit.load(Aurora.class);
+		this.dispatcher = new TimedDispatcher(plugin);
+		Aurora.db.onDisable();
+		Aurora.db = world.database;
+		EntityClaimCache.clear();
+
+		final var players = new ArrayList<Player>();
+		final var mobs = new ArrayList<Entity>();
+
+		for (int i = getOption("players", 50); i > 0; i--) {
+			final var player = world.server.addPlayer();
+			player.teleport(randomLocation(random, false));
+			players.add(player);
+
+			// Attach the user to the player
+			world.server.getPluginManager().callEvent(new PlayerJoinEvent(player, ""));
+		}
+
+		for (int i = getOption("mobs", 200); i > 0; i--) {
+			mobs.add(spawnMob(world.server, randomLocation(random, i % 2 == 0)));
+		}
+
+		this.population = new Scenario.Population(world, players, mobs);
+		this.scenarios = options.containsKey("scenarios")
+				? Arrays.stream(options.get("scenarios").split(",")).map(s -> Scenario.valueOf(s.trim().toUpperCase())).toArray(Scenario[]::new)
+				: Scenario.values();
+
+		this.cumulativeWeights = new int[scenarios.length];
+		for (int i = 0, total = 0; i < scenarios.length; i++) {
+			total += scenarios[i].weight;
+			cumulativeWeights[i] = total;
+		}
+	}
+
+	private int getOption(final @NotNull String name, final int defaultValue) {
+		return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+	}
+
+	private @NotNull Location randomLocation(final @NotNull Random random, final boolean inClaim) {
+		if (inClaim) {
+			final var claim = world.claims.get(random.nextInt(world.claims.size()));
+			return new Location(world.world,
+					claim.minX + random.nextInt(claim.maxX - claim.minX + 1), 64,
+					claim.minZ + random.nextInt(claim.maxZ - claim.minZ + 1));
+		}
+
+		return new Location(world.world,
+				random.nextInt(world.extent * 2) - world.extent, 64,
+				random.nextInt(world.extent * 2) - world.extent);
+	}
+
+	/**
+	 * Spawns a zombie at the given location.
+	 *
+	 * @param server   The mocked server.
+	 * @param location The location to spawn the zombie at.
+	 * @return The zombie, or a player standing in for it if MockBukkit can't spawn zombies.
+	 */
+	static @NotNull Entity spawnMob(final @NotNull ServerMock server, final @NotNull Location location) {
+		try {
+			return location.getWorld().spawnEntity(location, EntityType.ZOMBIE);
+		} catch (UnsupportedOperationException e) {
+			final var player = server.addPlayer();
+			player.teleport(location);
+			return player;
+		}
+	}
+
+	private @NotNull Scenario nextScenario(final @NotNull Random random) {
+		final var value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+
+		for (int i = 0; i < scenarios.length; i++) {
+			if (value < cumulativeWeights[i]) return scenarios[i];
+		}
+
+		return scenarios[scenarios.length - 1];
+	}
+
+	private long replay(final int count, final @NotNull Random random, final @NotNull LatencyRecorder recorder) {
+		final var start = System.nanoTime();
+
+		for (int i = 0; i < count; i++) {
+			dispatcher.dispatch(nextScenario(random).create(population, random), recorder);
+		}
+
+		return System.nanoTime() - start;
+	}
+
+	private void run() {
+		final var random = new Random(getOption("seed", 1) + 1);
+		final var events = getOption("events", 1000000);
+
+		System.out.printf("Replaying %d events (%s) against %d claims%n",
+				events, Arrays.toString(scenarios), Aurora.db.claimIndex.size());
+
+		replay(getOption("warmup", 200000), random, new LatencyRecorder());
+
+		final var recorder = new LatencyRecorder();
+		final var elapsed = replay(events, random, recorder);
+
+		recorder.report(System.out);
+		System.out.printf("%nTotal: %d events in %.2f s (%.0f events/s including event creation), %d handler errors%n",
+				events, elapsed / 1e9, events / (elapsed / 1e9), dispatcher.getErrors());
+	}
+
+	public static void main(final String @NotNull [] args) throws IOException {
+		final var test = new LoadTest(args);
+
+		try {
+			test.run();
+		} finally {
+			test.world.close();
+		}
+	}
+}
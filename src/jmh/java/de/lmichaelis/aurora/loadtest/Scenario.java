@@ -0,0 +1,179 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.loadtest;
+
+import de.lmichaelis.aurora.benchmark.SyntheticWorld;
+import de.lmichaelis.aurora.model.Claim;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The kinds of events replayed by the load test. Each scenario creates events around the edges of random
+ * claims, since that is where the listeners have to do the most work. The weight of a scenario is its share
+ * of the mixed event stream and roughly matches what a busy survival server sees.
+ */
+public enum Scenario {
+	FLOW(400) {
+		@Override
+		@NotNull Event create(final @NotNull Population population, final @NotNull Random random) {
+			final var edge = Edge.random(population, random);
+			final var from = edge.outside(0);
+
+			// Liquids flow into the claim as well as out of it
+			return random.nextBoolean()
+					? new BlockFromToEvent(from, edge.inside(0))
+					: new BlockFromToEvent(edge.inside(0), from);
+		}
+	},
+
+	PISTON(200) {
+		@Override
+		@NotNull Event create(final @NotNull Population population, final @NotNull Random random) {
+			final var edge = Edge.random(population, random);
+			final var length = random.nextInt(13);
+			final var piston = edge.outside(length + 1);
+			final var blocks = new ArrayList<Block>(length);
+
+			for (int i = length; i > 0; i--) {
+				blocks.add(edge.outside(i));
+			}
+
+			// Piston clocks extend and retract all the time
+			return random.nextBoolean()
+					? new BlockPistonExtendEvent(piston, blocks, edge.inward)
+					: new BlockPistonRetractEvent(piston, blocks, edge.inward.getOppositeFace());
+		}
+	},
+
+	EXPLOSION(20) {
+		@Override
+		@NotNull Event create(final @NotNull Population population, final @NotNull Random random) {
+			final var edge = Edge.random(population, random);
+			final var center = edge.outside(random.nextInt(4));
+			final var blocks = new ArrayList<Block>();
+
+			for (int x = -4; x <= 4; x++) {
+				for (int y = -4; y <= 4; y++) {
+					for (int z = -4; z <= 4; z++) {
+						if (x * x + y * y + z * z > 16) continue;
+						blocks.add(center.getRelative(x, y, z));
+					}
+				}
+			}
+
+			final var source = population.mobs().get(random.nextInt(population.mobs().size()));
+			return new EntityExplodeEvent(source, center.getLocation(), blocks, 4);
+		}
+	},
+
+	MOB_FARM(150) {
+		@Override
+		@NotNull Event create(final @NotNull Population population, final @NotNull Random random) {
+			final var player = population.players().get(random.nextInt(population.players().size()));
+			final var victim = population.mobs().get(random.nextInt(population.mobs().size()));
+
+			return new EntityDamageByEntityEvent(player, victim, EntityDamageEvent.DamageCause.ENTITY_ATTACK, 4);
+		}
+	},
+
+	INTERACT(200) {
+		@Override
+		@NotNull Event create(final @NotNull Population population, final @NotNull Random random) {
+			final var player = population.players().get(random.nextInt(population.players().size()));
+			final var edge = Edge.random(population, random);
+			final var block = random.nextBoolean() ? edge.inside(random.nextInt(4)) : edge.outside(random.nextInt(4));
+
+			return random.nextInt(4) == 0
+					? new BlockBreakEvent(block, player)
+					: new PlayerInteractEvent(player, Action.RIGHT_CLICK_BLOCK, new ItemStack(Material.DIRT), block, BlockFace.UP);
+		}
+	},
+
+	JOIN(30) {
+		@Override
+		@NotNull Event create(final @NotNull Population population, final @NotNull Random random) {
+			final var player = population.players().get(random.nextInt(population.players().size()));
+			return new PlayerJoinEvent(player, "");
+		}
+	};
+
+	public final int weight;
+
+	Scenario(final int weight) {
+		this.weight = weight;
+	}
+
+	/**
+	 * Creates a new event of this scenario.
+	 *
+	 * @param population The world and entities to create the event in.
+	 * @param random     The random number generator to use.
+	 * @return The new event.
+	 */
+	abstract @NotNull Event create(final @NotNull Population population, final @NotNull Random random);
+
+	/**
+	 * The world and entities events are created in.
+	 *
+	 * @param world   The world containing all claims.
+	 * @param players The players acting in the world.
+	 * @param mobs    The non-player entities in the world.
+	 */
+	public record Population(@NotNull SyntheticWorld world, @NotNull List<Player> players, @NotNull List<Entity> mobs) {
+	}
+
+	/**
+	 * A random block on the edge of a claim, together with the direction pointing into the claim.
+	 */
+	private record Edge(@NotNull Block block, @NotNull BlockFace inward) {
+		private static final BlockFace[] FACES = {BlockFace.NORTH, BlockFace.EAST, BlockFace.SOUTH, BlockFace.WEST};
+
+		static @NotNull Edge random(final @NotNull Population population, final @NotNull Random random) {
+			final Claim claim = population.world().claims.get(random.nextInt(population.world().claims.size()));
+			final var inward = FACES[random.nextInt(FACES.length)];
+			final var y = 62 + random.nextInt(8);
+
+			final var x = switch (inward) {
+				case EAST -> claim.minX;
+				case WEST -> claim.maxX;
+				default -> claim.minX + random.nextInt(claim.maxX - claim.minX + 1);
+			};
+
+			final var z = switch (inward) {
+				case SOUTH -> claim.minZ;
+				case NORTH -> claim.maxZ;
+				default -> claim.minZ + random.nextInt(claim.maxZ - claim.minZ + 1);
+			};
+
+			return new Edge(population.world().world.getBlockAt(x, y, z), inward);
+		}
+
+		@NotNull Block inside(final int distance) {
+			return block.getRelative(inward, distance);
+		}
+
+		@NotNull Block outside(final int distance) {
+			return block.getRelative(inward.getOppositeFace(), distance + 1);
+		}
+	}
+}
@@ -0,0 +1,56 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.loadtest;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Passes events to the handlers of one plugin, timing each handler separately.
+ */
+public final class TimedDispatcher {
+	private final Plugin plugin;
+	private long errors = 0;
+
+	public TimedDispatcher(final @NotNull Plugin plugin) {
+		this.plugin = plugin;
+	}
+
+	/**
+	 * Passes the event to all of the plugin's handlers for it.
+	 *
+	 * @param event    The event to dispatch.
+	 * @param recorder The recorder to report the latencies to.
+	 * @return The time all handlers took together in nanoseconds.
+	 */
+	public long dispatch(final @NotNull Event event, final @NotNull LatencyRecorder recorder) {
+		var total = 0L;
+
+		for (final var listener : event.getHandlers().getRegisteredListeners()) {
+			if (listener.getPlugin() != plugin) continue;
+
+			final var start = System.nanoTime();
+
+			try {
+				listener.callEvent(event);
+			} catch (EventException e) {
+				errors++;
+			}
+
+			final var elapsed = System.nanoTime() - start;
+			recorder.record(listener.getListener().getClass().getSimpleName() + " " + event.getEventName(), elapsed);
+			total += elapsed;
+		}
+
+		return total;
+	}
+
+	/**
+	 * @return The number of handler invocations which threw an exception.
+	 */
+	public long getErrors() {
+		return errors;
+	}
+}
@@ -0,0 +1,285 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.loadtest;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import de.lmichaelis.aurora.Aurora;
+import de.lmichaelis.aurora.Database;
+import de.lmichaelis.aurora.EntityClaimCache;
+import de.lmichaelis.aurora.trace.EventTrace;
+import de.lmichaelis.aurora.trace.TraceRecord;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Replays an event trace recorded by Aurora's <tt>EventRecorder</tt> against a snapshot of the claim
+ * database, and reports the latency of every handler together with the slowest events.
+ * <p>
+ * A trace only contains the position, actor and a little extra data of each event, so events are rebuilt
+ * approximately: Explosions always destroy a sphere with a radius of 4 blocks and moved piston blocks are
+ * assumed to be in a line. Event types which can't be rebuilt are skipped and counted.
+ * <p>
+ * Options are passed as <tt>--name=value</tt>:
+ * <ul>
+ *     <li><tt>trace</tt>: The trace file to replay (required)</li>
+ *     <li><tt>database</tt>: The JDBC URI of the claim database snapshot (required). Use a copy, since
+ *         replaying joins updates users.</li>
+ *     <li><tt>from</tt>, <tt>to</tt>: Only replay events in this time range, given as local date and time
+ *         (i.e. <tt>2022-03-12T18:30</tt>)</li>
+ *     <li><tt>warmup</tt>: The number of times to replay the trace before measuring (default 1)</li>
+ *     <li><tt>slowest</tt>: The number of slowest events to list (default 20)</li>
+ * </ul>
+ */
+public final class TraceReplay {
+	private static final int EXPLOSION_RADIUS = 4;
+
+	private final HashMap<String, String> options = new HashMap<>();
+	private final ServerMock server;
+	private final TimedDispatcher dispatcher;
+	private final List<TraceRecord> records;
+	private final HashMap<UUID, Player> players = new HashMap<>();
+	private final HashMap<UUID, Entity> mobs = new HashMap<>();
+	private final TreeMap<String, Integer> skipped = new TreeMap<>();
+	private Entity victim = null;
+
+	private record Timed(@NotNull TraceRecord record, long nanos) {
+	}
+
+	private TraceReplay(final String @NotNull [] args) throws IOException, SQLException {
+		for (final var arg : args) {
+			final var separator = arg.indexOf('=');
+			if (!arg.startsWith("--") || separator < 0) throw new IllegalArgumentException("Invalid option: " + arg);
+			options.put(arg.substring(2, separator), arg.substring(separator + 1));
+		}
+
+		if (!options.containsKey("trace") || !options.containsKey("database")) {
+			throw new IllegalArgumentException("Usage: --trace=<file> --database=<jdbc uri> [--from=<time>] [--to=<time>]");
+		}
+
+		final var from = getTime("from", Long.MIN_VALUE);
+		final var to = getTime("to", Long.MAX_VALUE);
+
+		this.records = EventTrace.read(new File(options.get("trace"))).stream()
+				.filter(r -> r.time() >= from && r.time() <= to && r.world() != null)
+				.toList();
+
+		this.server = MockBukkit.mock();
+		records.stream().map(TraceRecord::world).distinct().forEach(server::addSimpleWorld);
+
+		// Loading the plugin connects to the configured database, so swap in the snapshot afterwards
+		final var plugin = MockBukkit.load(Aurora.class);
+		this.dispatcher = new TimedDispatcher(plugin);
+		Aurora.db.onDisable();
+		Aurora.db = new Database(options.get("database"));
+		EntityClaimCache.clear();
+	}
+
+	private long getTime(final @NotNull String name, final long defaultValue) {
+		if (!options.containsKey(name)) return defaultValue;
+		return LocalDateTime.parse(options.get(name)).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+
+	private @NotNull Player getPlayer(final @NotNull UUID id) {
+		return players.computeIfAbsent(id, i -> {
+			final var player = new PlayerMock(server, "p" + players.size(), i);
+			server.addPlayer(player);
+
+			// Attach the user to the player
+			server.getPluginManager().callEvent(new PlayerJoinEvent(player, ""));
+			return player;
+		});
+	}
+
+	private @NotNull Entity getEntity(final @Nullable UUID id, final boolean isPlayer, final @NotNull Location location) {
+		if (id != null && isPlayer) {
+			final var player = getPlayer(id);
+			player.teleport(location);
+			return player;
+		}
+
+		final var entity = id == null
+				? (victim == null ? victim = LoadTest.spawnMob(server, location) : victim)
+				: mobs.computeIfAbsent(id, i -> LoadTest.spawnMob(server, location));
+
+		entity.teleport(location);
+		return entity;
+	}
+
+	private static @NotNull List<Block> sphere(final @NotNull Block center) {
+		final var blocks = new ArrayList<Block>();
+
+		for (int x = -EXPLOSION_RADIUS; x <= EXPLOSION_RADIUS; x++) {
+			for (int y = -EXPLOSION_RADIUS; y <= EXPLOSION_RADIUS; y++) {
+				for (int z = -EXPLOSION_RADIUS; z <= EXPLOSION_RADIUS; z++) {
+					if (x * x + y * y + z * z > EXPLOSION_RADIUS * EXPLOSION_RADIUS) continue;
+					blocks.add(center.getRelative(x, y, z));
+				}
+			}
+		}
+
+		return blocks;
+	}
+
+	/**
+	 * Rebuilds the event of a trace record.
+	 *
+	 * @param record The record to rebuild the event of.
+	 * @return The event or <tt>null</tt> if the type of event can't be rebuilt.
+	 */
+	private @Nullable Event rebuild(final @NotNull TraceRecord record) {
+		final World world = server.getWorld(record.world());
+		if (world == null) return null;
+
+		final var block = world.getBlockAt(record.x(), record.y(), record.z());
+		final var location = block.getLocation();
+		final var aux = record.aux();
+
+		return switch (record.type()) {
+			case "BlockFromToEvent" -> {
+				final var face = BlockFace.values()[aux];
+				yield new BlockFromToEvent(block.getRelative(face.getOppositeFace()), block);
+			}
+			case "BlockPistonExtendEvent", "BlockPistonRetractEvent" -> {
+				final var direction = BlockFace.values()[aux & 0xFF];
+				final var moved = new ArrayList<Block>();
+
+				for (int i = 1; i <= aux >>> 8; i++) {
+					moved.add(block.getRelative(direction, i));
+				}
+
+				yield record.type().equals("BlockPistonExtendEvent")
+						? new BlockPistonExtendEvent(block, moved, direction)
+						: new BlockPistonRetractEvent(block, moved, direction);
+			}
+			case "BlockExplodeEvent" -> new BlockExplodeEvent(block, sphere(block), 0.25f);
+			case "EntityExplodeEvent" ->
+					new EntityExplodeEvent(getEntity(record.actor(), record.isPlayer(), location), location, sphere(block), 0.25f);
+			case "EntityDamageByEntityEvent" -> new EntityDamageByEntityEvent(
+					getEntity(record.actor(), record.isPlayer(), location),
+					getEntity(null, false, location),
+					EntityDamageEvent.DamageCause.values()[aux & 0xFF],
+					1
+			);
+			default -> {
+				if (record.actor() == null || !record.isPlayer()) yield null;
+				final var player = getPlayer(record.actor());
+
+				yield switch (record.type()) {
+					case "BlockBreakEvent" -> new BlockBreakEvent(block, player);
+					case "BlockPlaceEvent" -> new BlockPlaceEvent(block, block.getState(), block.getRelative(BlockFace.DOWN),
+							new ItemStack(Material.STONE), player, true, EquipmentSlot.HAND);
+					case "PlayerInteractEvent" ->
+							new PlayerInteractEvent(player, Action.values()[aux], null, block, BlockFace.UP);
+					case "PlayerJoinEvent" -> new PlayerJoinEvent(player, "");
+					default -> null;
+				};
+			}
+		};
+	}
+
+	private long replay(final @NotNull LatencyRecorder recorder, final @Nullable PriorityQueue<Timed> slowest,
+						final int keep) {
+		var total = 0L;
+
+		for (final var record : records) {
+			final var event = rebuild(record);
+
+			if (event == null) {
+				skipped.merge(record.type(), 1, Integer::sum);
+				continue;
+			}
+
+			final var nanos = dispatcher.dispatch(event, recorder);
+			total += nanos;
+
+			if (slowest != null) {
+				slowest.add(new Timed(record, nanos));
+				if (slowest.size() > keep) slowest.poll();
+			}
+		}
+
+		return total;
+	}
+
+	private void run() {
+		final var keep = options.containsKey("slowest") ? Integer.parseInt(options.get("slowest")) : 20;
+		final var warmup = options.containsKey("warmup") ? Integer.parseInt(options.get("warmup")) : 1;
+
+		System.out.printf("Replaying %d events against %d claims%n", records.size(), Aurora.db.claimIndex.size());
+
+		for (int i = 0; i < warmup; i++) {
+			replay(new LatencyRecorder(), null, 0);
+		}
+
+		skipped.clear();
+
+		final var recorder = new LatencyRecorder();
+		final var slowest = new PriorityQueue<>(Comparator.comparingLong(Timed::nanos));
+		final var total = replay(recorder, slowest, keep);
+
+		recorder.report(System.out);
+		System.out.printf("%nTotal handler time: %.2f ms, %d handler errors%n", total / 1e6, dispatcher.getErrors());
+
+		if (!skipped.isEmpty()) {
+			System.out.printf("Skipped events which can't be rebuilt: %s%n", skipped);
+		}
+
+		System.out.printf("%nSlowest events:%n");
+		slowest.stream().sorted(Comparator.comparingLong(Timed::nanos).reversed()).forEach(t -> System.out.printf(
+				"%9.2f µs  %s  %-28s %s (%d, %d, %d)%s%n",
+				t.nanos() / 1e3,
+				LocalDateTime.ofInstant(Instant.ofEpochMilli(t.record().time()), ZoneId.systemDefault()),
+				t.record().type(),
+				t.record().world(), t.record().x(), t.record().y(), t.record().z(),
+				t.record().cancelled() ? " (cancelled)" : ""
+		));
+	}
+
+	public static void main(final String @NotNull [] args) throws IOException, SQLException {
+		final var replay = new TraceReplay(args);
+
+		try {
+			replay.run();
+		} finally {
+			MockBukkit.unmock();
+		}
+	}
+}
@@ -4,8 +4,17 @@ package de.lmichaelis.aurora;
 
 import de.lmichaelis.aurora.command.*;
 import de.lmichaelis.aurora.config.AuroraConfig;
+import de.lmichaelis.aurora.jfr.AuroraEvent;
 import de.lmichaelis.aurora.listener.*;
+import de.lmichaelis.aurora.model.User;
+import de.lmichaelis.aurora.stats.Hotspots;
+import de.lmichaelis.aurora.stats.Statistics;
+import de.lmichaelis.aurora.stats.TickWatchdog;
 import de.lmichaelis.aurora.task.AccrueClaimBlocksTask;
+import de.lmichaelis.aurora.task.ClaimVisualizationTask;
+import de.lmichaelis.aurora.task.SelectionPreviewTask;
+import de.lmichaelis.aurora.trace.EventRecorder;
+import de.lmichaelis.aurora.trace.EventTrace;
 import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.plugin.java.JavaPluginLoader;
@@ -25,10 +34,14 @@ public final class Aurora extends JavaPlugin {
 	public static Database db;
 	public static Aurora instance;
 	public AuroraConfig config;
+	public final ClaimVisualizationTask visualizations = new ClaimVisualizationTask();
 
 	private BaseListener[] listeners;
 	private AuroraRootCommand command;
 	private Integer accrueClaimBlocksTaskId = null;
+	private Integer statisticsDumpTaskId = null;
+	private Integer hotspotsDecayTaskId = null;
+	private EventRecorder recorder = null;
 
 	public Aurora() {
 		super();
@@ -55,6 +68,11 @@ public final class Aurora extends JavaPlugin {
 		this.command.addSubCommand("admin", new AuroraAdminModeCommand(this));
 		this.command.addSubCommand("setting", new AuroraClaimSettingsCommand(this));
 		this.command.addSubCommand("list-groups", new AuroraGroupListCommand(this));
+		this.command.addSubCommand("nearby", new AuroraNearbyCommand(this));
+		this.command.addSubCommand("add-box", new AuroraAddBoxCommand(this));
+		this.command.addSubCommand("polygon", new AuroraPolygonCommand(this));
+		this.command.addSubCommand("stats", new AuroraStatsCommand(this));
+		this.command.addSubCommand("hotspots", new AuroraHotspotsCommand(this));
 
 		final var rootCommand = this.getCommand("aurora");
 		assert rootCommand != null;
@@ -62,8 +80,31 @@ public final class Aurora extends JavaPlugin {
 		rootCommand.setTabCompleter(this.command);
 		rootCommand.setExecutor(this.command);
 
+		// Make Aurora's Flight Recorder events known to recordings started before they first happen
+		AuroraEvent.registerAll();
+
 		// Initialize Aurora
 		this.onReload();
+
+		// Start the task counting database calls per tick
+		this.getServer().getScheduler().scheduleSyncRepeatingTask(this, Statistics::onTick, 1, 1);
+
+		// Start the task probing the database after an outage, off the server thread since a probe may block
+		this.getServer().getScheduler().runTaskTimerAsynchronously(this, () -> Aurora.db.breaker.probeIfOpen(), 20, 20);
+
+		// Start the task writing the changes queued during an outage once the database answers again
+		this.getServer().getScheduler().scheduleSyncRepeatingTask(this, () -> Aurora.db.breaker.replayQueued(), 1, 1);
+
+		// Start the task rendering all claim visualizations
+		this.getServer().getScheduler().scheduleSyncRepeatingTask(this, this.visualizations, 1, 1);
+
+		// Start the task previewing claim selections while they are being made
+		this.getServer().getScheduler().scheduleSyncRepeatingTask(
+				this,
+				new SelectionPreviewTask(),
+				SelectionPreviewTask.INTERVAL,
+				SelectionPreviewTask.INTERVAL
+		);
 	}
 
 	/**
@@ -75,6 +116,7 @@ public final class Aurora extends JavaPlugin {
 
 		try {
 			this.saveDefaultConfig();
+			if (!new File(this.getDataFolder(), "aurora.jfc").exists()) this.saveResource("aurora.jfc", false);
 
 			final var configFile = new File(this.getDataFolder(), "config.yml");
 			this.config = AuroraConfig.load(configFile);
@@ -82,13 +124,26 @@ public final class Aurora extends JavaPlugin {
 			throw new IllegalStateException("Failed to load configuration", e);
 		}
 
+		Predicates.compile(config);
+		Statistics.setSlowQueryThreshold(config.slowQueryThresholdMilliseconds);
+
 		try {
 			if (Aurora.db != null) Aurora.db.onDisable();
 			Aurora.db = new Database(config.databaseUri);
+			Aurora.db.breaker.configure(config.databaseFailureThreshold, config.databaseSlowCallMilliseconds, config.databaseRetrySeconds);
 		} catch (SQLException | IOException e) {
 			throw new IllegalStateException("Failed to connect to the database", e);
 		}
 
+		// Cached claims belong to the previous database connection
+		EntityClaimCache.clear();
+
+		// Pick up permission changes of everyone already online
+		for (final var player : this.getServer().getOnlinePlayers()) {
+			final var user = User.fromMetadata(player);
+			if (user != null) user.refreshPermissions(player);
+		}
+
 		// Start the task to add claim blocks to every online player every 5 minutes
 		if (accrueClaimBlocksTaskId != null) this.getServer().getScheduler().cancelTask(this.accrueClaimBlocksTaskId);
 		if (config.accrueClaimBlockEnabled && config.accrueClaimBlocksPerHour > 0) {
@@ -100,6 +155,21 @@ public final class Aurora extends JavaPlugin {
 			);
 		}
 
+		// Start the task to periodically append the handler statistics to a CSV file
+		if (statisticsDumpTaskId != null) this.getServer().getScheduler().cancelTask(this.statisticsDumpTaskId);
+		if (config.statisticsDumpIntervalMinutes > 0) {
+			final var file = new File(this.getDataFolder(), "stats.csv");
+			final var interval = 20L * 60 * config.statisticsDumpIntervalMinutes;
+
+			statisticsDumpTaskId = this.getServer().getScheduler().scheduleSyncRepeatingTask(this, () -> {
+				try {
+					Statistics.writeCsv(file);
+				} catch (IOException e) {
+					getLogger().warning("Failed to write statistics: %s".formatted(e));
+				}
+			}, interval, interval);
+		}
+
 		if (listeners == null) {
 			listeners = new BaseListener[]{
 					new BlockEventListener(this),
@@ -113,16 +183,84 @@ public final class Aurora extends JavaPlugin {
 
 			final var pm = getServer().getPluginManager();
 			for (final var listener : listeners) {
-				pm.registerEvents(listener, this);
+				// Note: Only takes effect on startup, since listeners are registered once
+				if (config.statisticsEnabled) Statistics.registerEvents(listener, this);
+				else pm.registerEvents(listener, this);
+			}
+		}
+
+		// Count lookups per chunk and let the counts decay every minute, which needs the timed handlers
+		if (hotspotsDecayTaskId != null) this.getServer().getScheduler().cancelTask(this.hotspotsDecayTaskId);
+		if (config.statisticsEnabled && config.hotspotsEnabled) {
+			if (Statistics.hotspots == null) Statistics.hotspots = new Hotspots();
+
+			final var hotspots = Statistics.hotspots;
+			final var factor = Math.pow(0.5, 1.0 / Math.max(1, config.hotspotsHalfLifeMinutes));
+			hotspotsDecayTaskId = this.getServer().getScheduler().scheduleSyncRepeatingTask(
+					this,
+					() -> hotspots.decay(factor),
+					20 * 60,
+					20 * 60
+			);
+		} else {
+			Statistics.hotspots = null;
+		}
+
+		// Watch the time spent in event handlers per tick, which needs the timed handlers
+		stopWatchdog();
+		if (config.statisticsEnabled && config.watchdogBudgetMilliseconds > 0) {
+			Statistics.watchdog = new TickWatchdog(
+					Thread.currentThread(),
+					new File(this.getDataFolder(), "watchdog.log"),
+					config.watchdogBudgetMilliseconds,
+					config.watchdogSampleIntervalMilliseconds
+			);
+		}
+
+		// Start recording all handled events if requested
+		stopEventRecorder();
+		if (config.eventTraceEnabled) {
+			final var file = new File(this.getDataFolder(), "events.trace");
+			// Always keep at least one record, even if the size is set to zero
+			final var capacity = Math.max(1, (int) Math.min(Integer.MAX_VALUE - EventTrace.HEADER_SIZE,
+					(long) config.eventTraceSizeMegabytes * 1024 * 1024) / EventTrace.RECORD_SIZE);
+
+			try {
+				recorder = EventRecorder.start(this, file, capacity, listeners);
+			} catch (IOException e) {
+				getLogger().severe("Failed to start recording events: %s".formatted(e));
 			}
 		}
 	}
 
+	private void stopWatchdog() {
+		if (Statistics.watchdog == null) return;
+
+		Statistics.watchdog.stop();
+		Statistics.watchdog = null;
+	}
+
+	private void stopEventRecorder() {
+		if (recorder == null) return;
+
+		try {
+			recorder.stop();
+		} catch (IOException e) {
+			getLogger().severe("Failed to close the event trace: %s".formatted(e));
+		}
+
+		recorder = null;
+	}
+
 	/**
 	 * Disables all the plugin's features and saves the plugin's current state.
 	 */
 	@Override
 	public void onDisable() {
+		stopEventRecorder();
+		stopWatchdog();
+		AuroraEvent.unregisterAll();
+
 		try {
 			if (Aurora.db != null) Aurora.db.onDisable();
 		} catch (IOException e) {
@@ -2,12 +2,13 @@
 // SPDX-License-Identifier: LGPL-3.0-only
 package de.lmichaelis.aurora;
 
-import de.lmichaelis.aurora.model.Claim;
 import org.bukkit.block.Block;
 import org.bukkit.metadata.Metadatable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+
 public final class AuroraUtil {
 	public static <T> @Nullable T getScalarMetadata(final @NotNull String name, final @NotNull Metadatable entity) {
 		final var meta = entity.getMetadata(name);
@@ -17,27 +18,36 @@ public final class AuroraUtil {
 		return (T) meta.get(0).value();
 	}
 
-	public static void neutralizeExplosion(final @NotNull Iterable<Block> affectedBlocks) {
-		final var iter = affectedBlocks.iterator();
-		Claim cached = null;
-
-		while (iter.hasNext()) {
-			final var block = iter.next();
-
-			// Ignore air blocks
-			if (block.getType().isAir()) continue;
-
-			// TODO: Cache the claim for better efficiency
-			cached = Claim.getClaimIfDifferent(cached, block.getLocation());
+	/**
+	 * Packs the given chunk coordinates into a single key.
+	 *
+	 * @param chunkX The x-coordinate of the chunk.
+	 * @param chunkZ The z-coordinate of the chunk.
+	 * @return A key unique to the given chunk.
+	 */
+	public static long chunkKey(final int chunkX, final int chunkZ) {
+		return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+	}
 
-			// Rule: Explosions can affect all blocks outside of claims
-			if (cached == null) continue;
+	/**
+	 * Packs the given block coordinates into a single key.
+	 *
+	 * @param x The x-coordinate of the block.
+	 * @param y The y-coordinate of the block.
+	 * @param z The z-coordinate of the block.
+	 * @return A key unique to the given block within its world.
+	 */
+	public static long blockKey(final int x, final int y, final int z) {
+		return ((long) x & 0x7FFFFFF) | (((long) z & 0x7FFFFFF) << 27) | ((long) y << 54);
+	}
 
-			// Rule: If explosions are turned on in the claim, all blocks can be destroyed
-			if (cached.allowsExplosions) continue;
+	public static void neutralizeExplosion(final @NotNull List<Block> affectedBlocks) {
+		if (affectedBlocks.isEmpty()) return;
 
-			// Otherwise, prevent the block from breaking
-			iter.remove();
-		}
+		// Rule: Explosions can affect all blocks outside of claims and all blocks in claims
+		//       with explosions turned on. Otherwise, prevent the block from breaking.
+		//       Air blocks are ignored.
+		BlockBatch.removeDisallowed(affectedBlocks.get(0).getWorld(), affectedBlocks, BlockBatch.BLOCKS,
+				block -> block.getType().isAir(), claim -> claim == null || claim.allowsExplosions);
 	}
 }
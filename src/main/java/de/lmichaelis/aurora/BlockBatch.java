@@ -0,0 +1,219 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora;
+
+import de.lmichaelis.aurora.model.Claim;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Evaluates claim rules for whole lists of blocks at once (i.e. grown trees, explosions or multi-block
+ * placements). The claims overlapping the list's bounding box are queried once, split up by chunk and
+ * every block is then resolved against the candidates of its chunk only.
+ */
+public final class BlockBatch {
+	/**
+	 * Accessor for the block coordinates of an element in a batch.
+	 *
+	 * @param <T> The type of element.
+	 */
+	public interface Position<T> {
+		int x(final @NotNull T value);
+
+		int y(final @NotNull T value);
+
+		int z(final @NotNull T value);
+	}
+
+	public static final Position<Block> BLOCKS = new Position<>() {
+		@Override
+		public int x(final @NotNull Block value) {
+			return value.getX();
+		}
+
+		@Override
+		public int y(final @NotNull Block value) {
+			return value.getY();
+		}
+
+		@Override
+		public int z(final @NotNull Block value) {
+			return value.getZ();
+		}
+	};
+
+	public static final Position<BlockState> STATES = new Position<>() {
+		@Override
+		public int x(final @NotNull BlockState value) {
+			return value.getX();
+		}
+
+		@Override
+		public int y(final @NotNull BlockState value) {
+			return value.getY();
+		}
+
+		@Override
+		public int z(final @NotNull BlockState value) {
+			return value.getZ();
+		}
+	};
+
+	/**
+	 * Removes all blocks from the given collection which are in a claim the rule does not allow.
+	 *
+	 * @param world    The world all blocks are in.
+	 * @param blocks   The blocks to filter.
+	 * @param position The accessor for the blocks' coordinates.
+	 * @param allowed  The rule to apply. Receives <tt>null</tt> for blocks outside of claims.
+	 * @param <T>      The type of block.
+	 */
+	public static <T> void removeDisallowed(final @NotNull World world, final @NotNull Collection<T> blocks,
+											final @NotNull Position<T> position,
+											final @NotNull Predicate<@Nullable Claim> allowed) {
+		evaluate(world, blocks, position, null, allowed, true);
+	}
+
+	/**
+	 * Removes all blocks from the given collection which are in a claim the rule does not allow, except for
+	 * the blocks which are always kept.
+	 *
+	 * @param world    The world all blocks are in.
+	 * @param blocks   The blocks to filter.
+	 * @param position The accessor for the blocks' coordinates.
+	 * @param kept     Selects the blocks which are kept without looking up their claim (i.e. air blocks).
+	 * @param allowed  The rule to apply. Receives <tt>null</tt> for blocks outside of claims.
+	 * @param <T>      The type of block.
+	 */
+	public static <T> void removeDisallowed(final @NotNull World world, final @NotNull Collection<T> blocks,
+											final @NotNull Position<T> position, final @NotNull Predicate<T> kept,
+											final @NotNull Predicate<@Nullable Claim> allowed) {
+		evaluate(world, blocks, position, kept, allowed, true);
+	}
+
+	/**
+	 * Checks whether the rule allows all given blocks.
+	 *
+	 * @param world    The world all blocks are in.
+	 * @param blocks   The blocks to check.
+	 * @param position The accessor for the blocks' coordinates.
+	 * @param allowed  The rule to apply. Receives <tt>null</tt> for blocks outside of claims.
+	 * @param <T>      The type of block.
+	 * @return <tt>true</tt> if all blocks are allowed and <tt>false</tt> if not.
+	 */
+	public static <T> boolean isAllowed(final @NotNull World world, final @NotNull Collection<T> blocks,
+										final @NotNull Position<T> position,
+										final @NotNull Predicate<@Nullable Claim> allowed) {
+		return evaluate(world, blocks, position, null, allowed, false);
+	}
+
+	private static <T> boolean evaluate(final @NotNull World world, final @NotNull Collection<T> blocks,
+										final @NotNull Position<T> position, final @Nullable Predicate<T> kept,
+										final @NotNull Predicate<@Nullable Claim> allowed, final boolean remove) {
+		if (blocks.isEmpty()) return true;
+
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+
+		for (final var block : blocks) {
+			if (kept != null && kept.test(block)) continue;
+
+			final int x = position.x(block), y = position.y(block), z = position.z(block);
+
+			if (x < minX) minX = x;
+			if (y < minY) minY = y;
+			if (z < minZ) minZ = z;
+			if (x > maxX) maxX = x;
+			if (y > maxY) maxY = y;
+			if (z > maxZ) maxZ = z;
+		}
+
+		// All blocks are kept without a claim lookup
+		if (minX > maxX) return true;
+
+		final var candidates = Claim.getClaims(world, minX, minY, minZ, maxX, maxY, maxZ);
+		final var wildAllowed = allowed.test(null);
+
+		// Rule: If no claim is affected, the outcome is the same for all blocks
+		if (candidates.isEmpty()) {
+			if (!wildAllowed && remove) {
+				if (kept == null) blocks.clear();
+				else blocks.removeIf(kept.negate());
+			}
+
+			return wildAllowed;
+		}
+
+		final var chunks = new Long2ObjectOpenHashMap<List<Claim>>();
+		final var iter = blocks.iterator();
+		var allAllowed = true;
+
+		long lastChunk = Long.MIN_VALUE;
+		List<Claim> chunkCandidates = null;
+		Claim lastClaim = null;
+		var lastAllowed = wildAllowed;
+
+		while (iter.hasNext()) {
+			final var block = iter.next();
+			if (kept != null && kept.test(block)) continue;
+
+			final int x = position.x(block), y = position.y(block), z = position.z(block);
+			final var chunk = AuroraUtil.chunkKey(x >> 4, z >> 4);
+
+			if (chunk != lastChunk) {
+				lastChunk = chunk;
+				chunkCandidates = chunks.get(chunk);
+
+				if (chunkCandidates == null) {
+					chunkCandidates = getChunkCandidates(candidates, x >> 4, z >> 4);
+					chunks.put(chunk, chunkCandidates);
+				}
+			}
+
+			final var claim = Claim.getClaim(chunkCandidates, x, y, z);
+			final boolean blockAllowed;
+
+			if (claim == null) {
+				blockAllowed = wildAllowed;
+			} else if (claim == lastClaim) {
+				blockAllowed = lastAllowed;
+			} else {
+				blockAllowed = allowed.test(claim);
+				lastClaim = claim;
+				lastAllowed = blockAllowed;
+			}
+
+			if (blockAllowed) continue;
+			if (!remove) return false;
+
+			iter.remove();
+			allAllowed = false;
+		}
+
+		return allAllowed;
+	}
+
+	private static @NotNull List<Claim> getChunkCandidates(final @NotNull List<Claim> candidates,
+														   final int chunkX, final int chunkZ) {
+		final int minX = chunkX << 4, minZ = chunkZ << 4, maxX = minX + 15, maxZ = minZ + 15;
+		final var result = new ArrayList<Claim>(candidates.size());
+
+		for (final var candidate : candidates) {
+			if (candidate.maxX < minX || candidate.minX > maxX || candidate.maxZ < minZ || candidate.minZ > maxZ)
+				continue;
+
+			result.add(candidate);
+		}
+
+		return result;
+	}
+}
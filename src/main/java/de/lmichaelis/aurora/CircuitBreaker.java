@@ -0,0 +1,301 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora;
+
+import com.j256.ormlite.dao.Dao;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Stops Aurora from talking to its database after repeated failures or slow calls, so that an outage doesn't
+ * stall the server thread with one timeout after another. While the breaker is open, reads fail immediately
+ * and are served from memory by the callers (claims from the claim index, groups from the loaded claims and
+ * users from the online players) or denied. Writes which can be replayed are queued and written once a probe
+ * query succeeds again.
+ * <p>
+ * Probing may block until the connection times out, so it is done off the server thread. This is safe because
+ * nothing else uses the connection while the breaker is open. The queued writes hold the live objects, which
+ * only the server thread may read, so they are replayed on the server thread in small batches per tick.
+ */
+public final class CircuitBreaker {
+	private static final int MAX_QUEUED_WRITES = 10000;
+	private static final long REPLAY_BUDGET_NANOS = 10_000_000L;
+
+	// The DAO methods which only write the given object, and can thus be replayed with its latest state
+	private static final Set<String> REPLAYABLE = Set.of("update", "delete", "createOrUpdate");
+
+	private final Callable<?> probe;
+	private final ArrayDeque<Write> queue = new ArrayDeque<>();
+	private final Object recovery = new Object();
+
+	private int failureThreshold = 3;
+	private long slowCallNanos = 1_000_000_000L;
+	private long retryMillis = 10_000;
+
+	// Guarded by this
+	private int failures = 0;
+	private volatile boolean open = false;
+	private long openedAt = 0;
+	private int dropped = 0;
+	private int replayed = 0;
+
+	// Set once a probe succeeded, until the queue is empty or the database fails again
+	private volatile boolean replaying = false;
+
+	private record Write(@NotNull Dao<?, ?> dao, @NotNull Method method, Object @NotNull [] args) {
+	}
+
+	/**
+	 * @param probe A cheap query used to check whether the database is reachable again.
+	 */
+	public CircuitBreaker(final @NotNull Callable<?> probe) {
+		this.probe = probe;
+	}
+
+	/**
+	 * Sets when the breaker opens and how often it retries the database.
+	 *
+	 * @param failureThreshold The number of consecutive slow calls, connection failures or timeouts after which
+	 *                         the breaker opens.
+	 * @param slowCallMillis   The time in milliseconds after which a call counts as failed.
+	 * @param retrySeconds     The time in seconds after which an open breaker probes the database again.
+	 */
+	public void configure(final int failureThreshold, final int slowCallMillis, final int retrySeconds) {
+		this.failureThreshold = Math.max(1, failureThreshold);
+		this.slowCallNanos = slowCallMillis > 0 ? slowCallMillis * 1_000_000L : Long.MAX_VALUE;
+		this.retryMillis = Math.max(1, retrySeconds) * 1000L;
+	}
+
+	/**
+	 * @return <tt>true</tt> if the last call to the database succeeded and the breaker is closed.
+	 */
+	public synchronized boolean isAvailable() {
+		return !open && failures == 0;
+	}
+
+	/**
+	 * @return The number of writes waiting to be replayed.
+	 */
+	public synchronized int getQueuedWrites() {
+		return queue.size();
+	}
+
+	/**
+	 * Wraps the given DAO so that all calls to it go through the breaker.
+	 *
+	 * @param dao           The DAO to wrap.
+	 * @param queuesCreates Whether created objects can be queued too, which is only the case if their id is
+	 *                      not generated by the database.
+	 * @param <T>           The type of object stored by the DAO.
+	 * @param <ID>          The type of the object's id.
+	 * @return The wrapped DAO.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T, ID> @NotNull Dao<T, ID> guard(final @NotNull Dao<T, ID> dao, final boolean queuesCreates) {
+		return (Dao<T, ID>) Proxy.newProxyInstance(Dao.class.getClassLoader(), new Class<?>[]{Dao.class}, (proxy, method, args) -> {
+			if (method.getDeclaringClass() == Object.class) return invoke(dao, method, args);
+
+			if (open) {
+				final var name = method.getName();
+				final var replayable = REPLAYABLE.contains(name) || (queuesCreates && name.equals("create"));
+
+				// Only single objects are queued, prepared updates and deletes fail like all other statements
+				if (replayable && args != null && args.length == 1 && dao.getDataClass().isInstance(args[0])) {
+					enqueue(new Write(dao, method, args));
+					return 1;
+				}
+
+				// Methods which can't throw an SQLException (i.e. the statement builders) don't talk to the
+				// database themselves. Statements prepared by builders fail once they are run.
+				if (!throwsSqlException(method)) return invoke(dao, method, args);
+
+				throw new SQLException("The database is unavailable, %s was not called".formatted(name));
+			}
+
+			final var start = System.nanoTime();
+
+			try {
+				final var result = invoke(dao, method, args);
+				onResult(System.nanoTime() - start > slowCallNanos);
+				return result;
+			} catch (SQLException e) {
+				// Errors reported by a database which answered in time (e.g. constraint violations) say nothing
+				// about whether it is available
+				if (isOutage(e) || System.nanoTime() - start > slowCallNanos) onResult(true);
+				throw e;
+			}
+		});
+	}
+
+	/**
+	 * Checks whether the exception or one of its causes means that the database couldn't be reached or didn't
+	 * answer in time. ORMLite wraps the exceptions thrown by the driver, so these are usually found in a cause.
+	 *
+	 * @param e The exception to check.
+	 * @return <tt>true</tt> if the exception was caused by a connection failure or timeout.
+	 */
+	static boolean isOutage(final @Nullable Throwable e) {
+		for (var cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof SQLTransientConnectionException || cause instanceof SQLNonTransientConnectionException ||
+					cause instanceof SQLTimeoutException) return true;
+
+			// SQL state class 08 is "connection exception"
+			if (cause instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08"))
+				return true;
+		}
+
+		return false;
+	}
+
+	private static boolean throwsSqlException(final @NotNull Method method) {
+		for (final var type : method.getExceptionTypes()) {
+			if (type.isAssignableFrom(SQLException.class)) return true;
+		}
+
+		return false;
+	}
+
+	private static Object invoke(final @NotNull Object target, final @NotNull Method method, final Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	private synchronized void onResult(final boolean failed) {
+		if (!failed) {
+			failures = 0;
+			return;
+		}
+
+		if (++failures >= failureThreshold && !open) {
+			open = true;
+			openedAt = System.currentTimeMillis();
+			Aurora.logger.severe(("The database failed %d times in a row. Claims are protected from memory and " +
+					"changes are queued until it recovers.").formatted(failures));
+		}
+	}
+
+	private synchronized void enqueue(final @NotNull Write write) {
+		if (queue.size() >= MAX_QUEUED_WRITES) {
+			queue.poll();
+			dropped++;
+		}
+
+		queue.add(write);
+	}
+
+	/**
+	 * Probes the database if the breaker is open and the retry interval has passed. If the database answers,
+	 * the queued writes are replayed by {@link #replayQueued()}. Called off the server thread.
+	 */
+	public void probeIfOpen() {
+		synchronized (recovery) {
+			synchronized (this) {
+				if (!open || replaying || System.currentTimeMillis() - openedAt < retryMillis) return;
+			}
+
+			if (probe()) replaying = true;
+		}
+	}
+
+	/**
+	 * Replays queued writes for a few milliseconds once the database is available again and closes the breaker
+	 * when all of them are written. Called on the server thread every tick.
+	 */
+	public void replayQueued() {
+		if (replaying) replay(System.nanoTime() + REPLAY_BUDGET_NANOS);
+	}
+
+	/**
+	 * Probes the database right away and replays all queued writes if it answers. Called on the server thread
+	 * when Aurora is disabled.
+	 */
+	public void recover() {
+		synchronized (recovery) {
+			if (!open || (!replaying && !probe())) return;
+
+			replaying = true;
+			replay(Long.MAX_VALUE);
+		}
+	}
+
+	private void replay(final long deadline) {
+		do {
+			final Write write;
+
+			synchronized (this) {
+				write = queue.poll();
+
+				if (write == null) {
+					open = false;
+					replaying = false;
+					failures = 0;
+					Aurora.logger.info("The database is available again, %d queued changes were written%s.".formatted(
+							replayed, dropped > 0 ? " and %d were dropped because too many were queued".formatted(dropped) : ""
+					));
+					replayed = 0;
+					dropped = 0;
+					return;
+				}
+			}
+
+			final var start = System.nanoTime();
+
+			try {
+				invoke(write.dao(), write.method(), write.args());
+			} catch (Throwable e) {
+				if (isOutage(e)) {
+					// The database went away again, so retry the write after the next successful probe
+					synchronized (this) {
+						queue.addFirst(write);
+						openedAt = System.currentTimeMillis();
+					}
+
+					replaying = false;
+					return;
+				}
+
+				// The database is fine, but the write itself can't be applied
+				Aurora.logger.severe("Dropped a queued %s of %s: %s".formatted(write.method().getName(), write.args()[0], e));
+				continue;
+			}
+
+			synchronized (this) {
+				replayed++;
+
+				// Don't keep stalling the server thread if the database is still struggling
+				if (System.nanoTime() - start > slowCallNanos) {
+					openedAt = System.currentTimeMillis();
+					replaying = false;
+					return;
+				}
+			}
+		} while (System.nanoTime() < deadline);
+	}
+
+	private boolean probe() {
+		try {
+			probe.call();
+			return true;
+		} catch (Exception e) {
+			synchronized (this) {
+				openedAt = System.currentTimeMillis();
+			}
+
+			return false;
+		}
+	}
+}
@@ -2,16 +2,20 @@
 // SPDX-License-Identifier: LGPL-3.0-only
 package de.lmichaelis.aurora;
 
+import com.j256.ormlite.dao.BaseDaoImpl;
 import com.j256.ormlite.dao.Dao;
 import com.j256.ormlite.dao.DaoManager;
 import com.j256.ormlite.jdbc.JdbcConnectionSource;
 import com.j256.ormlite.table.TableUtils;
 import de.lmichaelis.aurora.model.Claim;
+import de.lmichaelis.aurora.model.ClaimIndex;
 import de.lmichaelis.aurora.model.User;
 import de.lmichaelis.aurora.model.UserGroup;
+import de.lmichaelis.aurora.stats.Statistics;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.UUID;
 
 /**
@@ -21,22 +25,53 @@ public class Database {
 	public final Dao<Claim, Integer> claims;
 	public final Dao<User, UUID> users;
 	public final Dao<UserGroup, Integer> userGroups;
+	public final ClaimIndex claimIndex = new ClaimIndex();
+	public final CircuitBreaker breaker;
 
 	private final JdbcConnectionSource source;
 
 	public Database(final String uri) throws SQLException {
 		this.source = new JdbcConnectionSource(uri);
-		this.claims = DaoManager.createDao(this.source, Claim.class);
-		this.users = DaoManager.createDao(this.source, User.class);
-		this.userGroups = DaoManager.createDao(this.source, UserGroup.class);
+
+		final BaseDaoImpl<Claim, Integer> claims = DaoManager.createDao(this.source, Claim.class);
+		final BaseDaoImpl<User, UUID> users = DaoManager.createDao(this.source, User.class);
+		final BaseDaoImpl<UserGroup, Integer> userGroups = DaoManager.createDao(this.source, UserGroup.class);
+		this.breaker = new CircuitBreaker(() -> claims.idExists(0));
+
+		// Users are keyed by their UUID, so creating them can be replayed after an outage
+		this.claims = Statistics.timed(breaker.guard(claims, false), claims.getTableInfo());
+		this.users = Statistics.timed(breaker.guard(users, true), users.getTableInfo());
+		this.userGroups = Statistics.timed(breaker.guard(userGroups, false), userGroups.getTableInfo());
 
 		// Create the tables if needed
 		TableUtils.createTableIfNotExists(source, Claim.class);
 		TableUtils.createTableIfNotExists(source, User.class);
 		TableUtils.createTableIfNotExists(source, UserGroup.class);
+
+		// Databases created before claims could have custom shapes lack the shape column. Its type differs
+		// between databases (i.e. Derby has no TEXT), so let ORMLite generate its definition.
+		try {
+			claims.queryRawValue("SELECT COUNT(shape) FROM claims");
+		} catch (SQLException e) {
+			final var column = new StringBuilder();
+			source.getDatabaseType().appendColumnArg(claims.getTableName(), column,
+					claims.getTableInfo().getFieldTypeByColumnName("shape"),
+					new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+
+			claims.executeRawNoArgs("ALTER TABLE claims ADD COLUMN " + column);
+		}
+
+		// All claim lookups are served from memory
+		this.claimIndex.load(this.claims);
 	}
 
 	public void onDisable() throws IOException {
+		// Last chance to write the changes queued during an outage
+		this.breaker.recover();
+
+		final var lost = this.breaker.getQueuedWrites();
+		if (lost > 0) Aurora.logger.severe("The database is still unavailable, %d queued changes are lost.".formatted(lost));
+
 		this.source.close();
 	}
 }
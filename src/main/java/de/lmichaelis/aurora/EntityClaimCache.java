@@ -0,0 +1,76 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora;
+
+import de.lmichaelis.aurora.model.Claim;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.WeakHashMap;
+
+/**
+ * Caches the claim an entity is in for as long as it stays on the same block. Entries are dropped
+ * when the entity is removed from its world and are ignored once any claim has been changed.
+ * <p>
+ * Entities are held weakly, and Bukkit entities are equal if their entity ids are, so entries of
+ * entities whose removal was missed are collected together with the entity.
+ */
+public final class EntityClaimCache {
+	private static final WeakHashMap<Entity, Entry> ENTRIES = new WeakHashMap<>();
+	private static final Location SCRATCH = new Location(null, 0, 0, 0);
+
+	private static final class Entry {
+		private World world;
+		private long position;
+		private int revision;
+		private Claim claim;
+	}
+
+	/**
+	 * Gets the claim the given entity is currently in.
+	 *
+	 * @param entity The entity to get the claim for.
+	 * @return The claim the entity is in or <tt>null</tt> if the entity is not inside a claim.
+	 */
+	public static @Nullable Claim getClaim(final @NotNull Entity entity) {
+		final var location = entity.getLocation(SCRATCH);
+		final var world = location.getWorld();
+		final int x = location.getBlockX(), y = location.getBlockY(), z = location.getBlockZ();
+		final var position = AuroraUtil.blockKey(x, y, z);
+
+		var entry = ENTRIES.get(entity);
+		if (entry != null && entry.world == world && entry.position == position && entry.revision == Claim.revision) {
+			return entry.claim;
+		}
+
+		if (entry == null) {
+			entry = new Entry();
+			ENTRIES.put(entity, entry);
+		}
+
+		entry.world = world;
+		entry.position = position;
+		entry.revision = Claim.revision;
+		entry.claim = Claim.getClaim(world, x, y, z);
+		return entry.claim;
+	}
+
+	/**
+	 * Drops the cached claim of the given entity.
+	 *
+	 * @param entity The entity to drop the claim of.
+	 */
+	public static void invalidate(final @NotNull Entity entity) {
+		ENTRIES.remove(entity);
+	}
+
+	/**
+	 * Drops all cached claims.
+	 */
+	public static void clear() {
+		ENTRIES.clear();
+	}
+}
@@ -7,9 +7,9 @@ import de.lmichaelis.aurora.interactions.ClaimResizeHandler;
 import de.lmichaelis.aurora.model.Claim;
 import de.lmichaelis.aurora.model.Group;
 import de.lmichaelis.aurora.model.User;
-import de.lmichaelis.aurora.task.ClaimVisualizationTask;
+import de.lmichaelis.aurora.task.ClaimVisualization;
+import de.lmichaelis.aurora.task.VisualizationStyle;
 import org.bukkit.Bukkit;
-import org.bukkit.Color;
 import org.bukkit.FluidCollisionMode;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
@@ -33,10 +33,10 @@ public final class Interactions {
 		final var player = event.getPlayer();
 		final var user = Objects.requireNonNull(User.fromMetadata(player));
 		final var totalClaimsLimit = Aurora.instance.config.totalClaimsLimit;
-		final var isAdminClaiming = user.adminMode && player.hasPermission("aurora.admin.claims");
+		final var isAdminClaiming = user.adminMode && user.hasPermission(User.PERMISSION_ADMIN_CLAIMS);
 		final var subdivideMode = event.getItem().getType() == Aurora.instance.config.subclaimCreationTool;
 
-		if (!player.hasPermission("aurora.claims")) {
+		if (!user.hasPermission(User.PERMISSION_CLAIMS)) {
 			// The player is not allowed to create or modify claims
 			player.sendMessage(Aurora.instance.config.messages.noClaimCreationPermission);
 			return;
@@ -74,19 +74,24 @@ public final class Interactions {
 					return;
 				}
 
+				if (claim.getShape() != null) {
+					// Only the bounding box of shaped claims has corners, which can't be moved meaningfully
+					player.sendMessage(Aurora.instance.config.messages.cannotResizeShapedClaim);
+					return;
+				}
+
 				// the user is resizing a top-level claim
 				user.currentInteraction = new ClaimResizeHandler(target, user, claim);
 				player.sendMessage(Aurora.instance.config.messages.resizingClaim);
-			} else if (subdivideMode && claim.parent == null) {
-				// the user is creating a sub-claim
+			} else if (subdivideMode) {
+				// the user is creating a sub-claim, possibly inside another sub-claim
 				user.currentInteraction = new ClaimCreateHandler(target, user, claim);
 
 				player.sendMessage(Aurora.instance.config.messages.claimCornerSet.formatted(
 						target.getBlockX(), target.getBlockY(), target.getBlockZ()
 				));
 			} else {
-				player.sendMessage(subdivideMode ? Aurora.instance.config.messages.noNestedSubclaims
-						: Aurora.instance.config.messages.sublaimsRequireMode.formatted(
+				player.sendMessage(Aurora.instance.config.messages.sublaimsRequireMode.formatted(
 						Aurora.instance.config.subclaimCreationTool
 				));
 			}
@@ -111,6 +116,17 @@ public final class Interactions {
 		// Check that the player is actually targeting a claim
 		if (claim == null) {
 			player.sendMessage(Aurora.instance.config.messages.notAClaim);
+
+			final var nearest = Claim.findNearest(
+					target.getWorld(), target.getBlockX(), target.getBlockZ(),
+					Aurora.instance.config.nearbyClaimsMaxRadius
+			);
+
+			if (nearest != null) {
+				player.sendMessage(Aurora.instance.config.messages.nearestClaim.formatted(
+						(int) Math.sqrt(nearest.squaredDistance(target.getBlockX(), target.getBlockZ()))
+				));
+			}
 			return;
 		}
 
@@ -127,9 +143,9 @@ public final class Interactions {
 										   final @NotNull Claim claim) {
 		final var user = Objects.requireNonNull(User.fromMetadata(player));
 
-		// If there is already a task for this claim, cancel it
-		if (user.visualizationTasks.containsKey(claim.id)) {
-			user.visualizationTasks.remove(claim.id).cancel();
+		// If there is already a visualization for this claim, cancel it
+		if (user.visualizations.containsKey(claim.id)) {
+			user.visualizations.remove(claim.id).cancel();
 		}
 
 		// If the claim in question is a subclaim, also visualize the corners of the parent claim.
@@ -137,12 +153,41 @@ public final class Interactions {
 			showClaimBoundaries(player, claim.parent);
 		}
 
-		user.visualizationTasks.put(claim.id, ClaimVisualizationTask.spawn(
+		final var visualization = ClaimVisualization.create(
 				claim,
 				player,
-				claim.isAdmin ? Color.RED : (claim.parent == null ? Color.BLUE : Color.GREEN),
-				20 * 20
+				claim.isAdmin ? VisualizationStyle.ADMIN_CLAIM
+						: (claim.parent == null ? VisualizationStyle.CLAIM : VisualizationStyle.SUBCLAIM)
+		);
+
+		Aurora.instance.visualizations.add(visualization, 20 * 20);
+		user.visualizations.put(claim.id, visualization);
+	}
+
+	/**
+	 * Tells the player that the area they selected is too close to another player's claim and shows that claim.
+	 *
+	 * @param player      The player to notify.
+	 * @param neighbour   The claim which is too close.
+	 * @param areaCornerA The first corner of the selected area.
+	 * @param areaCornerB The second corner of the selected area.
+	 */
+	public static void sendTooCloseMessage(final @NotNull Player player, final @NotNull Claim neighbour,
+										   final @NotNull Location areaCornerA, final @NotNull Location areaCornerB) {
+		final var distance = Math.sqrt(neighbour.squaredDistance(
+				Math.min(areaCornerA.getBlockX(), areaCornerB.getBlockX()),
+				Math.min(areaCornerA.getBlockZ(), areaCornerB.getBlockZ()),
+				Math.max(areaCornerA.getBlockX(), areaCornerB.getBlockX()),
+				Math.max(areaCornerA.getBlockZ(), areaCornerB.getBlockZ())
+		));
+
+		player.sendMessage(Aurora.instance.config.messages.tooCloseToAnotherClaim.formatted(
+				Aurora.instance.config.getClaimBufferDistance(player.getWorld().getName()),
+				Bukkit.getOfflinePlayer(neighbour.owner).getName(),
+				(int) distance
 		));
+
+		showClaimBoundaries(player, neighbour);
 	}
 
 	public static boolean isClaimCorner(final @NotNull Claim claim, final @NotNull Location location) {
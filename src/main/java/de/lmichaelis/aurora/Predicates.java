@@ -2,6 +2,7 @@
 // SPDX-License-Identifier: LGPL-3.0-only
 package de.lmichaelis.aurora;
 
+import de.lmichaelis.aurora.config.AuroraConfig;
 import org.bukkit.Material;
 import org.bukkit.Tag;
 import org.bukkit.entity.*;
@@ -10,14 +11,35 @@ import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
 
 public final class Predicates {
+	private static final byte CONTAINER = 1;
+	private static final byte INTERACT_ACCESS_PROTECTED = 1 << 1;
+	private static final byte INTERACT_BUILD_PROTECTED = 1 << 2;
+	private static final byte PLACE_BUILD_PROTECTED = 1 << 3;
+
+	// Note: These are all blocks whose state is a `org.bukkit.block.Container`
+	private static final EnumSet<Material> CONTAINERS = EnumSet.of(
+			Material.BARREL,
+			Material.BLAST_FURNACE,
+			Material.BREWING_STAND,
+			Material.CHEST,
+			Material.DISPENSER,
+			Material.DROPPER,
+			Material.FURNACE,
+			Material.HOPPER,
+			Material.SMOKER,
+			Material.TRAPPED_CHEST
+	);
+
 	// Note: This set of blocks was adapted from GriefPrevention
-	private static final EnumSet<Material> INTERACT_ACCESS_PROTECTED = EnumSet.of(
+	private static final EnumSet<Material> INTERACT_ACCESS_PROTECTED_BLOCKS = EnumSet.of(
 			Material.ANVIL,
 			Material.BEACON,
 			Material.BEE_NEST,
@@ -39,7 +61,7 @@ public final class Predicates {
 	);
 
 	// Note: This set of blocks was adapted from GriefPrevention
-	private static final EnumSet<Material> INTERACT_BUILD_PROTECTED = EnumSet.of(
+	private static final EnumSet<Material> INTERACT_BUILD_PROTECTED_BLOCKS = EnumSet.of(
 			Material.NOTE_BLOCK,
 			Material.REPEATER,
 			Material.DRAGON_EGG,
@@ -49,7 +71,7 @@ public final class Predicates {
 	);
 
 	// Note: This set of blocks was adapted from GriefPrevention
-	private static final EnumSet<Material> PLACE_BUILD_PROTECTED = EnumSet.of(
+	private static final EnumSet<Material> PLACE_BUILD_PROTECTED_ITEMS = EnumSet.of(
 			Material.BONE_MEAL,
 			Material.ARMOR_STAND,
 			Material.END_CRYSTAL,
@@ -99,31 +121,101 @@ public final class Predicates {
 	private static final EnumSet<Material> SPAWN_EGGS;
 	private static final EnumSet<Material> DYES;
 
+	/**
+	 * Classification flags of every material, indexed by {@link Material#ordinal()}.
+	 */
+	private static byte[] materialFlags;
+
 	static {
 		SPAWN_EGGS = EnumSet.copyOf(Arrays.stream(Material.values()).filter(material -> material.name().endsWith("_SPAWN_EGG")).toList());
 		DYES = EnumSet.copyOf(Arrays.stream(Material.values()).filter(material -> material.name().endsWith("_DYE")).toList());
+		materialFlags = compileMaterialFlags(null);
+	}
+
+	/**
+	 * Rebuilds the material classification table from the built-in material lists and the additional
+	 * materials listed in the given configuration.
+	 *
+	 * @param config The configuration to take additional materials from.
+	 */
+	public static void compile(final @NotNull AuroraConfig config) {
+		materialFlags = compileMaterialFlags(config);
+	}
+
+	private static byte @NotNull [] compileMaterialFlags(final @Nullable AuroraConfig config) {
+		final var materials = Material.values();
+		final var flags = new byte[materials.length];
+
+		for (final var material : materials) {
+			byte flag = 0;
+
+			if (CONTAINERS.contains(material) || Tag.SHULKER_BOXES.isTagged(material)) {
+				flag |= CONTAINER;
+			}
+
+			if (INTERACT_ACCESS_PROTECTED_BLOCKS.contains(material) ||
+					Tag.CANDLES.isTagged(material) ||
+					Tag.CANDLE_CAKES.isTagged(material) ||
+					Tag.WOODEN_TRAPDOORS.isTagged(material) ||
+					Tag.WOODEN_DOORS.isTagged(material) ||
+					Tag.FENCE_GATES.isTagged(material) ||
+					Tag.BUTTONS.isTagged(material)) {
+				flag |= INTERACT_ACCESS_PROTECTED;
+			}
+
+			if (INTERACT_BUILD_PROTECTED_BLOCKS.contains(material) || Tag.FLOWER_POTS.isTagged(material)) {
+				flag |= INTERACT_BUILD_PROTECTED;
+			}
+
+			if (PLACE_BUILD_PROTECTED_ITEMS.contains(material) ||
+					DYES.contains(material) ||
+					SPAWN_EGGS.contains(material) ||
+					Tag.ITEMS_BOATS.isTagged(material)) {
+				flag |= PLACE_BUILD_PROTECTED;
+			}
+
+			flags[material.ordinal()] = flag;
+		}
+
+		if (config != null) {
+			addMaterialFlags(flags, config.containerBlocks, CONTAINER);
+			addMaterialFlags(flags, config.interactAccessProtectedBlocks, INTERACT_ACCESS_PROTECTED);
+			addMaterialFlags(flags, config.interactBuildProtectedBlocks, INTERACT_BUILD_PROTECTED);
+			addMaterialFlags(flags, config.placeBuildProtectedItems, PLACE_BUILD_PROTECTED);
+		}
+
+		return flags;
+	}
+
+	private static void addMaterialFlags(final byte @NotNull [] flags, final @Nullable List<String> names, final byte flag) {
+		if (names == null) return;
+
+		for (final var name : names) {
+			final var material = Material.matchMaterial(name);
+
+			if (material == null) {
+				Aurora.logger.warning("Ignoring unknown material '%s' in configuration".formatted(name));
+				continue;
+			}
+
+			flags[material.ordinal()] |= flag;
+		}
+	}
+
+	public static boolean isContainer(final @NotNull Material material) {
+		return (materialFlags[material.ordinal()] & CONTAINER) != 0;
 	}
 
-	public static boolean isInteractAccessProtected(final Material material) {
-		return INTERACT_ACCESS_PROTECTED.contains(material) ||
-				Tag.CANDLES.isTagged(material) ||
-				Tag.CANDLE_CAKES.isTagged(material) ||
-				Tag.WOODEN_TRAPDOORS.isTagged(material) ||
-				Tag.WOODEN_DOORS.isTagged(material) ||
-				Tag.FENCE_GATES.isTagged(material) ||
-				Tag.BUTTONS.isTagged(material);
+	public static boolean isInteractAccessProtected(final @NotNull Material material) {
+		return (materialFlags[material.ordinal()] & INTERACT_ACCESS_PROTECTED) != 0;
 	}
 
-	public static boolean isInteractBuildProtected(final Material material) {
-		return INTERACT_BUILD_PROTECTED.contains(material) ||
-				Tag.FLOWER_POTS.isTagged(material);
+	public static boolean isInteractBuildProtected(final @NotNull Material material) {
+		return (materialFlags[material.ordinal()] & INTERACT_BUILD_PROTECTED) != 0;
 	}
 
-	public static boolean isPlaceBuildProtected(final Material material) {
-		return PLACE_BUILD_PROTECTED.contains(material) ||
-				DYES.contains(material) ||
-				SPAWN_EGGS.contains(material) ||
-				Tag.ITEMS_BOATS.isTagged(material);
+	public static boolean isPlaceBuildProtected(final @NotNull Material material) {
+		return (materialFlags[material.ordinal()] & PLACE_BUILD_PROTECTED) != 0;
 	}
 
 	public static boolean hasEntityContainer(final @NotNull Entity entity) {
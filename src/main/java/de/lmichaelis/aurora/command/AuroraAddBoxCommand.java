@@ -0,0 +1,61 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.command;
+
+import de.lmichaelis.aurora.Aurora;
+import de.lmichaelis.aurora.interactions.ClaimAddBoxHandler;
+import de.lmichaelis.aurora.model.Claim;
+import de.lmichaelis.aurora.model.ClaimShape;
+import de.lmichaelis.aurora.model.Group;
+import de.lmichaelis.aurora.model.User;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Starts adding another box to the claim the player is standing in (<tt>/aurora add-box</tt>).
+ */
+public class AuroraAddBoxCommand extends AuroraBaseCommand {
+	public AuroraAddBoxCommand(Aurora plugin) {
+		super(plugin);
+	}
+
+	@Override
+	public boolean hasPermission(CommandSender sender) {
+		return sender.hasPermission("aurora.claims");
+	}
+
+	@Override
+	public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+		if (!(sender instanceof final Player player)) return false;
+
+		var claim = Claim.getClaim(player.getLocation());
+		final var user = Objects.requireNonNull(User.fromMetadata(player));
+
+		// Boxes are always added to the top-level claim
+		while (claim != null && claim.parent != null) claim = claim.parent;
+
+		if (claim == null) {
+			player.sendMessage(plugin.config.messages.notAClaim);
+		} else if (!claim.isAllowed(player, Group.OWNER)) {
+			player.sendMessage(plugin.config.messages.notClaimOwner);
+		} else if (claim.getShape() != null && claim.getShape().kind != ClaimShape.Kind.BOXES) {
+			player.sendMessage(plugin.config.messages.cannotAddBoxToPolygon);
+		} else {
+			user.currentInteraction = new ClaimAddBoxHandler(user, claim);
+			player.sendMessage(plugin.config.messages.addBoxStarted.formatted(plugin.config.claimCreationTool));
+		}
+
+		return true;
+	}
+
+	@Override
+	public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
+		return List.of();
+	}
+}
@@ -38,6 +38,9 @@ public class AuroraAdminModeCommand extends AuroraBaseCommand {
 		final var user = User.fromMetadata(player);
 		assert user != null;
 
+		// Entering admin mode is a good opportunity to pick up permission changes
+		user.refreshPermissions(player);
+
 		if (user.adminMode) {
 			user.adminMode = false;
 			player.sendMessage(plugin.config.messages.leaveAdminMode);
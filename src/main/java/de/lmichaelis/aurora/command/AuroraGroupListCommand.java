@@ -12,7 +12,6 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -44,13 +43,8 @@ public class AuroraGroupListCommand extends AuroraBaseCommand {
 			}
 
 			if (!claim.restricted && claim.parent != null) {
-				try {
-					Aurora.db.claims.refresh(claim.parent);
-					for (final var group : claim.parent.userGroups) {
-						map.computeIfAbsent(group.group, g -> new HashSet<>()).add(Bukkit.getOfflinePlayer(group.player).getName());
-					}
-				} catch (SQLException e) {
-					e.printStackTrace();
+				for (final var group : claim.parent.userGroups) {
+					map.computeIfAbsent(group.group, g -> new HashSet<>()).add(Bukkit.getOfflinePlayer(group.player).getName());
 				}
 			}
 
@@ -0,0 +1,110 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.command;
+
+import de.lmichaelis.aurora.Aurora;
+import de.lmichaelis.aurora.stats.Statistics;
+import org.bukkit.Bukkit;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Lists the chunks in which Aurora looks up the most claims, together with the owners of the claims there
+ * (<tt>/aurora hotspots [export|reset]</tt>).
+ */
+public class AuroraHotspotsCommand extends AuroraBaseCommand {
+	private static final int MAX_LISTED_HOTSPOTS = 10;
+
+	public AuroraHotspotsCommand(Aurora plugin) {
+		super(plugin);
+	}
+
+	@Override
+	public boolean hasPermission(CommandSender sender) {
+		return sender.hasPermission("aurora.hotspots");
+	}
+
+	@Override
+	public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+		if (args.length > 2) return false;
+
+		final var hotspots = Statistics.hotspots;
+		if (hotspots == null) {
+			sender.sendMessage("§cHotspots are not being recorded.");
+			return true;
+		}
+
+		if (args.length == 2) {
+			switch (args[1]) {
+				case "reset" -> {
+					hotspots.reset();
+					sender.sendMessage("§aHotspots reset.");
+				}
+				case "export" -> {
+					final var worlds = new HashSet<String>();
+					for (final var hotspot : hotspots.snapshot()) worlds.add(hotspot.world());
+
+					try {
+						hotspots.writeCsv(new File(plugin.getDataFolder(), "hotspots.csv"));
+
+						for (final var world : worlds) {
+							hotspots.writeHeatmap(world, new File(plugin.getDataFolder(), "hotspots-%s.png".formatted(world)));
+						}
+					} catch (IOException e) {
+						sender.sendMessage("§cFailed to export hotspots: %s".formatted(e.getMessage()));
+						return true;
+					}
+
+					sender.sendMessage("§aExported hotspots to hotspots.csv and heatmaps of %d worlds.".formatted(worlds.size()));
+				}
+				default -> {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		final var snapshot = hotspots.snapshot();
+		if (snapshot.isEmpty()) {
+			sender.sendMessage("§7Nothing has been recorded yet.");
+			return true;
+		}
+
+		sender.sendMessage("§aTop %d of %d chunks by recent claim lookups:".formatted(
+				Math.min(MAX_LISTED_HOTSPOTS, snapshot.size()), snapshot.size()
+		));
+
+		for (final var hotspot : snapshot.subList(0, Math.min(MAX_LISTED_HOTSPOTS, snapshot.size()))) {
+			final int x = hotspot.chunkX() << 4, z = hotspot.chunkZ() << 4;
+			final var owners = Aurora.db.claimIndex.getClaims(hotspot.world(), x, Integer.MIN_VALUE, z, x + 15, Integer.MAX_VALUE, z + 15)
+					.stream()
+					.filter(claim -> claim.parent == null)
+					.map(claim -> claim.isAdmin ? "an Admin" : Bukkit.getOfflinePlayer(claim.owner).getName())
+					.distinct()
+					.collect(Collectors.joining(", "));
+
+			sender.sendMessage(String.format(Locale.ROOT,
+					"§3%s (%d, %d) §7%.0f lookups, %.0f cancelled, mostly %s%s",
+					hotspot.world(), x + 8, z + 8, hotspot.lookups(), hotspot.cancels(), hotspot.topType(),
+					owners.isEmpty() ? "" : ", claimed by " + owners
+			));
+		}
+
+		return true;
+	}
+
+	@Override
+	public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
+		return args.length == 2 ? List.of("export", "reset") : List.of();
+	}
+}
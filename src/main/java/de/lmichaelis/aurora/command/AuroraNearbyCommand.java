@@ -0,0 +1,85 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.command;
+
+import de.lmichaelis.aurora.Aurora;
+import de.lmichaelis.aurora.Interactions;
+import de.lmichaelis.aurora.model.Claim;
+import org.bukkit.Bukkit;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Lists and visualizes all claims around the player (<tt>/aurora nearby [radius]</tt>).
+ */
+public class AuroraNearbyCommand extends AuroraBaseCommand {
+	private static final int MAX_LISTED_CLAIMS = 10;
+
+	public AuroraNearbyCommand(Aurora plugin) {
+		super(plugin);
+	}
+
+	@Override
+	public boolean hasPermission(CommandSender sender) {
+		return sender.hasPermission("aurora.claims");
+	}
+
+	@Override
+	public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+		if (!(sender instanceof final Player player)) return false;
+		if (args.length > 2) return false;
+
+		var radius = plugin.config.nearbyClaimsRadius;
+		if (args.length == 2) {
+			try {
+				radius = Integer.parseInt(args[1]);
+			} catch (NumberFormatException e) {
+				return false;
+			}
+		}
+
+		radius = Math.max(0, Math.min(radius, plugin.config.nearbyClaimsMaxRadius));
+
+		final var location = player.getLocation();
+		final var claims = Claim.findWithin(player.getWorld(), location.getBlockX(), location.getBlockZ(), radius);
+
+		player.sendMessage(plugin.config.messages.nearbyClaimsHeader.formatted(radius));
+
+		if (claims.isEmpty()) {
+			player.sendMessage(plugin.config.messages.nearbyClaimsEmpty);
+			return true;
+		}
+
+		for (int i = 0; i < claims.size(); i++) {
+			final var claim = claims.get(i);
+
+			if (i < MAX_LISTED_CLAIMS) {
+				player.sendMessage(plugin.config.messages.nearbyClaimsEntry.formatted(
+						claim.name,
+						claim.isAdmin ? "an Admin" : Bukkit.getOfflinePlayer(claim.owner).getName(),
+						claim.minX,
+						claim.minZ,
+						(int) Math.sqrt(claim.squaredDistance(location.getBlockX(), location.getBlockZ()))
+				));
+			}
+
+			Interactions.showClaimBoundaries(player, claim);
+		}
+
+		if (claims.size() > MAX_LISTED_CLAIMS) {
+			player.sendMessage(plugin.config.messages.nearbyClaimsMore.formatted(claims.size() - MAX_LISTED_CLAIMS));
+		}
+
+		return true;
+	}
+
+	@Override
+	public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
+		return List.of();
+	}
+}
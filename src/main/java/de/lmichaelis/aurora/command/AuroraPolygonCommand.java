@@ -0,0 +1,51 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.command;
+
+import de.lmichaelis.aurora.Aurora;
+import de.lmichaelis.aurora.interactions.ClaimPolygonHandler;
+import de.lmichaelis.aurora.model.User;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Starts creating a polygonal claim (<tt>/aurora polygon</tt>).
+ */
+public class AuroraPolygonCommand extends AuroraBaseCommand {
+	public AuroraPolygonCommand(Aurora plugin) {
+		super(plugin);
+	}
+
+	@Override
+	public boolean hasPermission(CommandSender sender) {
+		return sender.hasPermission("aurora.claims");
+	}
+
+	@Override
+	public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+		if (!(sender instanceof final Player player)) return false;
+
+		final var user = Objects.requireNonNull(User.fromMetadata(player));
+		final var isAdminClaiming = user.adminMode && user.hasPermission(User.PERMISSION_ADMIN_CLAIMS);
+
+		if (user.totalClaimsUsed >= plugin.config.totalClaimsLimit && !isAdminClaiming) {
+			player.sendMessage(plugin.config.messages.tooManyClaims);
+		} else {
+			user.currentInteraction = new ClaimPolygonHandler(user);
+			player.sendMessage(plugin.config.messages.polygonStarted.formatted(plugin.config.claimCreationTool));
+		}
+
+		return true;
+	}
+
+	@Override
+	public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
+		return List.of();
+	}
+}
@@ -0,0 +1,80 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.command;
+
+import de.lmichaelis.aurora.Aurora;
+import de.lmichaelis.aurora.stats.QueryKind;
+import de.lmichaelis.aurora.stats.Statistics;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+
+/**
+ * Lists the event handlers and database calls which took the most time (<tt>/aurora stats [reset]</tt>).
+ */
+public class AuroraStatsCommand extends AuroraBaseCommand {
+	private static final int MAX_LISTED_METRICS = 10;
+
+	public AuroraStatsCommand(Aurora plugin) {
+		super(plugin);
+	}
+
+	@Override
+	public boolean hasPermission(CommandSender sender) {
+		return sender.hasPermission("aurora.stats");
+	}
+
+	@Override
+	public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
+		if (args.length > 2) return false;
+
+		if (args.length == 2) {
+			if (!args[1].equals("reset")) return false;
+
+			Statistics.reset();
+			sender.sendMessage("§aStatistics reset.");
+			return true;
+		}
+
+		final var queries = new StringJoiner(", ");
+		for (final var kind : QueryKind.values()) {
+			final var count = Statistics.getQueryCount(kind);
+			if (count > 0) queries.add("%d %s".formatted(count, kind.name().toLowerCase(Locale.ROOT)));
+		}
+
+		sender.sendMessage("§aDatabase calls: §7%d last tick, at most %d per tick (%s)".formatted(
+				Statistics.getQueriesLastTick(), Statistics.getMaxQueriesPerTick(),
+				queries.length() == 0 ? "none" : queries
+		));
+
+		final var snapshots = Statistics.snapshot();
+		if (snapshots.isEmpty()) {
+			sender.sendMessage("§7Nothing has been recorded yet.");
+			return true;
+		}
+
+		sender.sendMessage("§aTop %d of %d handlers and database calls by total time:".formatted(
+				Math.min(MAX_LISTED_METRICS, snapshots.size()), snapshots.size()
+		));
+
+		for (final var s : snapshots.subList(0, Math.min(MAX_LISTED_METRICS, snapshots.size()))) {
+			sender.sendMessage(String.format(Locale.ROOT,
+					"§3%s §7%d calls, %.1f ms total, p50 %.1f µs, p99 %.1f µs, max %.1f µs, %d cancelled, %.1f lookups/call",
+					s.metric().name, s.calls(), s.total() / 1e6, s.p50() / 1e3, s.p99() / 1e3, s.max() / 1e3,
+					s.cancels(), (double) s.claimLookups() / s.calls()
+			));
+		}
+
+		return true;
+	}
+
+	@Override
+	public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
+		return args.length == 2 ? List.of("reset") : List.of();
+	}
+}
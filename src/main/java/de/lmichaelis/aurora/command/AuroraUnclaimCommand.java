@@ -36,17 +36,7 @@ public class AuroraUnclaimCommand extends AuroraBaseCommand {
 		} else if (!claim.isAllowed(player, Group.OWNER)) {
 			player.sendMessage(plugin.config.messages.notClaimOwner);
 		} else {
-			for (final var subclaim : claim.getSubClaims()) {
-				if (user.visualizationTasks.containsKey(subclaim.id)) {
-					user.visualizationTasks.remove(subclaim.id).cancel();
-				}
-				subclaim.delete();
-			}
-
-			if (user.visualizationTasks.containsKey(claim.id)) {
-				user.visualizationTasks.remove(claim.id).cancel();
-			}
-			claim.delete();
+			delete(user, claim);
 
 			final var ownerPlayer = plugin.getServer().getPlayer(claim.owner);
 			User ownerUser;
@@ -76,6 +66,24 @@ public class AuroraUnclaimCommand extends AuroraBaseCommand {
 		return true;
 	}
 
+	/**
+	 * Deletes the given claim and all of its sub-claims, innermost first.
+	 *
+	 * @param user  The user deleting the claim.
+	 * @param claim The claim to delete.
+	 */
+	private static void delete(final @NotNull User user, final @NotNull Claim claim) {
+		for (final var subclaim : claim.getSubClaims()) {
+			delete(user, subclaim);
+		}
+
+		if (user.visualizations.containsKey(claim.id)) {
+			user.visualizations.remove(claim.id).cancel();
+		}
+
+		claim.delete();
+	}
+
 	@Override
 	public @Nullable List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String alias, @NotNull String[] args) {
 		return List.of();
@@ -12,7 +12,10 @@ import org.yaml.snakeyaml.nodes.Tag;
 import org.yaml.snakeyaml.representer.Representer;
 
 import java.io.*;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public final class AuroraConfig {
 	public String databaseUri = "jdbc:h2:mem:";
@@ -25,6 +28,67 @@ public final class AuroraConfig {
 	public int accrueClaimBlocksPerHour = 100;
 	public int accrueClaimBlocksLimit = 10000;
 	public int totalClaimsLimit = 10;
+	public VisualizationMode visualizationMode = VisualizationMode.PARTICLES;
+	public int visualizationBudget = 2000;
+	public int visualizationRadius = 64;
+	public int visualizationVerticalRange = 32;
+	public int nearbyClaimsRadius = 64;
+	public int nearbyClaimsMaxRadius = 256;
+	public int claimBufferDistance = 0;
+	public Map<String, Integer> claimBufferDistancePerWorld = new HashMap<>();
+
+	// The largest bounding box, in block columns, a polygon claim may span, even in admin mode
+	public int polygonClaimMaxArea = 1000000;
+
+	// Records all handled events into a ring file in the data folder, see EventRecorder
+	public boolean eventTraceEnabled = false;
+	public int eventTraceSizeMegabytes = 64;
+
+	// Records latencies of all event handlers and database calls, see /aurora stats
+	public boolean statisticsEnabled = true;
+	public int statisticsDumpIntervalMinutes = 0;
+
+	// Logs database calls taking longer than this together with the calling event handler, 0 to disable
+	public int slowQueryThresholdMilliseconds = 50;
+
+	// Samples the server thread's stack once Aurora's handlers spend more than this per tick, 0 to disable
+	public int watchdogBudgetMilliseconds = 20;
+	public int watchdogSampleIntervalMilliseconds = 5;
+
+	// Counts claim lookups and cancellations per chunk, halving the counts every half-life, see /aurora hotspots
+	public boolean hotspotsEnabled = true;
+	public int hotspotsHalfLifeMinutes = 60;
+
+	// Stops querying the database after this many connection failures, timeouts or slow calls in a row and retries it periodically
+	public int databaseFailureThreshold = 3;
+	public int databaseSlowCallMilliseconds = 1000;
+	public int databaseRetrySeconds = 10;
+
+	// Additional materials to protect, for example blocks added by mods or newer game versions
+	public List<String> containerBlocks = new ArrayList<>();
+	public List<String> interactAccessProtectedBlocks = new ArrayList<>();
+	public List<String> interactBuildProtectedBlocks = new ArrayList<>();
+	public List<String> placeBuildProtectedItems = new ArrayList<>();
+
+	/**
+	 * Reads the budget from configurations written before it was renamed to <tt>visualizationBudget</tt>.
+	 * There is no getter, so the old key is never written back.
+	 *
+	 * @param budget The maximum number of particles or fake blocks sent per refresh.
+	 */
+	public void setVisualizationParticleBudget(final int budget) {
+		visualizationBudget = budget;
+	}
+
+	/**
+	 * Gets the minimum distance between claims of different players in the given world.
+	 *
+	 * @param world The name of the world.
+	 * @return The buffer distance in blocks. <tt>0</tt> disables the buffer.
+	 */
+	public int getClaimBufferDistance(final String world) {
+		return claimBufferDistancePerWorld.getOrDefault(world, claimBufferDistance);
+	}
 
 	/**
 	 * Loads the configuration from a file.
@@ -39,6 +103,7 @@ public final class AuroraConfig {
 		final var type = new YAMLConstructorProxy(AuroraConfig.class);
 		type.addClassInfo(Material.class);
 		type.addClassInfo(MessagesConfig.class);
+		type.addClassInfo(VisualizationMode.class);
 
 		final var yml = new Yaml(type);
 		return yml.load(new FileInputStream(file));
@@ -56,6 +121,7 @@ public final class AuroraConfig {
 		repr.addClassTag(AuroraConfig.class, Tag.MAP);
 		repr.addClassTag(Material.class, Tag.STR);
 		repr.addClassTag(MessagesConfig.class, Tag.STR);
+		repr.addClassTag(VisualizationMode.class, Tag.STR);
 
 		var opt = new DumperOptions();
 		opt.setIndent(2);
@@ -13,6 +13,14 @@ public final class MessagesConfig {
 	public String claimCornerSet = "§aFirst claim corner set (%d, %d, %d).";
 	public String needMoreClaimBlocks = "§cYou need %d more claim blocks to be able to claim this area.";
 	public String wouldOverlapAnotherClaim = "§cYou can't create a claim here because it would overlap another one.";
+	public String tooCloseToAnotherClaim = "§cClaims must be more than %d blocks apart, but %s's claim is only %d blocks away.";
+	public String nearestClaim = "§7The nearest claim is %d blocks away.";
+	public String selectionValid = "§a%d x %d§7: costs §a%d§7 of your §a%d§7 remaining claim blocks";
+	public String selectionFree = "§a%d x %d";
+	public String selectionTooExpensive = "§c%d x %d§7: costs §c%d§7, but you only have §c%d§7 claim blocks left";
+	public String selectionOverlaps = "§c%d x %d§7: overlaps another claim";
+	public String selectionTooClose = "§c%d x %d§7: too close to another player's claim";
+	public String selectionOutsideParent = "§c%d x %d§7: outside of the claim it subdivides";
 	public String claimCreated = "§aClaim created (%d x %d blocks). You have %d claim blocks left.";
 	public String claimResized = "§aClaim resized (%d x %d blocks).";
 	public String resizingClaim = "§aResizing claim.";
@@ -26,7 +34,6 @@ public final class MessagesConfig {
 	public String unknownPlayer = "§cI've never seen a player by that name.";
 	public String cannotSetOwnGroup = "§cYou can't change your own group.";
 	public String tooManyClaims = "§cYou can't create any more claims.";
-	public String noNestedSubclaims = "§cYou can't create nested subclaims.";
 	public String sublaimsRequireMode = "§cTo create subclaims, please use a %s.";
 
 	public String claimListHeader = "These are your claims:";
@@ -35,6 +42,11 @@ public final class MessagesConfig {
 	public String claimListFooter = "You have used %d of your %d claim blocks. That means you have §a%d claim blocks as well as %d claims remaining.";
 	public String claimListEmpty = "   You haven't created any claims yet.";
 
+	public String nearbyClaimsHeader = "Claims within %d blocks:";
+	public String nearbyClaimsEntry = "§3- %s of %s at (%d, %d); %d blocks away";
+	public String nearbyClaimsMore = "   ... and %d more.";
+	public String nearbyClaimsEmpty = "   There are no claims nearby.";
+
 	public String leaveAdminMode = "§aYou've left administrative mode.";
 	public String enterAdminMode = "§aYou've entered administrative mode.";
 	public String creatingAdminClaim = "§aYou'll be creating an admin claim.";
@@ -42,4 +54,16 @@ public final class MessagesConfig {
 	public String enterSubdivideMode = "§bYou've entered claim subdivision mode.";
 	public String leaveSubdivideMode = "§bYou've left claim subdivision mode.";
 	public String invalidSubclaimLocation = "§cYou cannot create a subclaim here since it is outside of the main claim.";
+
+	public String addBoxStarted = "§aSelect two corners with your %s to add a box to this claim.";
+	public String boxAdded = "§aBox added (%d x %d blocks). You have %d claim blocks left.";
+	public String boxMustTouchClaim = "§cThe box has to touch or overlap the claim.";
+	public String cannotAddBoxToPolygon = "§cYou can't add boxes to a polygon claim.";
+	public String cannotResizeShapedClaim = "§cClaims made of multiple boxes or polygons can't be resized. Use /aurora add-box instead.";
+	public String polygonStarted = "§aClick the corners of the polygon with your %s, then click the first corner again to finish.";
+	public String polygonCornerSet = "§aCorner %d set (%d, %d).";
+	public String polygonInOtherWorld = "§cAll corners of the polygon have to be in the same world.";
+	public String polygonTooLarge = "§cThe polygon spans %d blocks, but polygons may span at most %d blocks.";
+	public String polygonIntersectsItself = "§cThe edges of the polygon must not cross each other.";
+	public String databaseUnavailable = "§cClaims can't be created right now because the database is unavailable. Please try again later.";
 }
@@ -0,0 +1,18 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.config;
+
+/**
+ * The ways claim boundaries can be shown to players.
+ */
+public enum VisualizationMode {
+	/**
+	 * Outlines claims with particles.
+	 */
+	PARTICLES,
+
+	/**
+	 * Marks the corners and edges of claims with client-side fake blocks on the surface.
+	 */
+	BLOCKS
+}
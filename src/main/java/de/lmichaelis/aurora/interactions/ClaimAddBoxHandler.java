@@ -0,0 +1,150 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.interactions;
+
+import de.lmichaelis.aurora.Aurora;
+import de.lmichaelis.aurora.Interactions;
+import de.lmichaelis.aurora.model.Claim;
+import de.lmichaelis.aurora.model.ClaimShape;
+import de.lmichaelis.aurora.model.User;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Handles a player adding another box to a top-level claim, turning it into a claim made of multiple boxes.
+ */
+public class ClaimAddBoxHandler implements InteractionHandler {
+	private final Claim claim;
+	private final User user;
+	private Location firstCorner = null;
+
+	public ClaimAddBoxHandler(final @NotNull User user, final @NotNull Claim claim) {
+		this.user = user;
+		this.claim = claim;
+	}
+
+	private @NotNull ClaimShape getCurrentShape() {
+		final var shape = claim.getShape();
+		return shape != null ? shape : ClaimShape.boxes(claim.minX, claim.minZ, claim.maxX, claim.maxZ);
+	}
+
+	@Override
+	public void handle(final @NotNull Player player, final @NotNull Location location) {
+		if (firstCorner == null) {
+			firstCorner = location;
+			player.sendMessage(Aurora.instance.config.messages.claimCornerSet.formatted(
+					location.getBlockX(), location.getBlockY(), location.getBlockZ()
+			));
+			return;
+		}
+
+		User owner = user;
+		if (!claim.owner.equals(user.id)) {
+			// If the user adding the box is not actually the owner, we need to make sure
+			// to bill the owner for it
+			final var onlineOwner = Bukkit.getPlayer(claim.owner);
+
+			if (onlineOwner != null) {
+				owner = Objects.requireNonNull(User.fromMetadata(onlineOwner));
+			} else {
+				owner = Objects.requireNonNull(User.get(claim.owner));
+			}
+		}
+
+		final var minX = Math.min(firstCorner.getBlockX(), location.getBlockX());
+		final var minZ = Math.min(firstCorner.getBlockZ(), location.getBlockZ());
+		final var maxX = Math.max(firstCorner.getBlockX(), location.getBlockX());
+		final var maxZ = Math.max(firstCorner.getBlockZ(), location.getBlockZ());
+
+		final var current = getCurrentShape();
+		final var shape = current.withBox(minX, minZ, maxX, maxZ);
+		final var additionalBlocks = (int) (shape.area() - current.area());
+
+		owner.refresh();
+		final var remainingClaimBlocks = owner.totalClaimBlocks - owner.usedClaimBlocks;
+
+		if (!current.overlaps(minX - 1, minZ - 1, maxX + 1, maxZ + 1)) {
+			// Claims have to stay in one piece
+			player.sendMessage(Aurora.instance.config.messages.boxMustTouchClaim);
+		} else if (additionalBlocks > remainingClaimBlocks && !claim.isAdmin) {
+			// The owner does not have enough claim blocks
+			player.sendMessage(Aurora.instance.config.messages.needMoreClaimBlocks.formatted(
+					additionalBlocks - remainingClaimBlocks
+			));
+		} else if (Claim.intersects(firstCorner, location, true, claim, true)) {
+			// The box overlaps another claim
+			player.sendMessage(Aurora.instance.config.messages.wouldOverlapAnotherClaim);
+		} else {
+			final var neighbour = claim.isAdmin ? null : Claim.findWithinBuffer(firstCorner, location, claim.owner);
+
+			if (neighbour != null) {
+				// The box is too close to another player's claim
+				Interactions.sendTooCloseMessage(player, neighbour, firstCorner, location);
+				return;
+			}
+
+			if (!claim.isAdmin) {
+				owner.usedClaimBlocks += additionalBlocks;
+				owner.update();
+			}
+
+			player.sendMessage(Aurora.instance.config.messages.boxAdded.formatted(
+					maxX - minX + 1, maxZ - minZ + 1, owner.totalClaimBlocks - owner.usedClaimBlocks
+			));
+
+			user.currentInteraction = null;
+			claim.setShape(shape);
+			claim.update();
+
+			Interactions.showClaimBoundaries(player, claim);
+		}
+	}
+
+	@Override
+	public @Nullable SelectionPreview preview(final @NotNull Player player, final @NotNull Location location) {
+		if (firstCorner == null) return null;
+
+		final var messages = Aurora.instance.config.messages;
+		final var minX = Math.min(firstCorner.getBlockX(), location.getBlockX());
+		final var minZ = Math.min(firstCorner.getBlockZ(), location.getBlockZ());
+		final var maxX = Math.max(firstCorner.getBlockX(), location.getBlockX());
+		final var maxZ = Math.max(firstCorner.getBlockZ(), location.getBlockZ());
+		final var sizeX = maxX - minX + 1;
+		final var sizeZ = maxZ - minZ + 1;
+
+		final var conflicts = Aurora.db.claimIndex.getClaims(claim.world, minX, Integer.MIN_VALUE, minZ, maxX, Integer.MAX_VALUE, maxZ);
+		conflicts.removeIf(c -> c.parent != null || c.id == claim.id || !c.overlapsColumns(minX, minZ, maxX, maxZ));
+
+		if (!conflicts.isEmpty()) {
+			return new SelectionPreview(minX, claim.minY, minZ, maxX, claim.maxY, maxZ, conflicts, false,
+					messages.selectionOverlaps.formatted(sizeX, sizeZ));
+		}
+
+		final var current = getCurrentShape();
+		if (!current.overlaps(minX - 1, minZ - 1, maxX + 1, maxZ + 1)) {
+			return new SelectionPreview(minX, claim.minY, minZ, maxX, claim.maxY, maxZ, List.of(claim), false,
+					messages.boxMustTouchClaim);
+		}
+
+		// Only check the balance of owners who are online, the preview must not hit the database
+		final var onlineOwner = Bukkit.getPlayer(claim.owner);
+		final var owner = onlineOwner == null || claim.isAdmin ? null : User.fromMetadata(onlineOwner);
+		if (owner == null) {
+			return new SelectionPreview(minX, claim.minY, minZ, maxX, claim.maxY, maxZ, conflicts, true,
+					messages.selectionFree.formatted(sizeX, sizeZ));
+		}
+
+		final var additionalBlocks = (int) (current.withBox(minX, minZ, maxX, maxZ).area() - current.area());
+		final var remainingClaimBlocks = owner.totalClaimBlocks - owner.usedClaimBlocks;
+		return new SelectionPreview(minX, claim.minY, minZ, maxX, claim.maxY, maxZ, conflicts,
+				additionalBlocks <= remainingClaimBlocks, additionalBlocks <= remainingClaimBlocks
+				? messages.selectionValid.formatted(sizeX, sizeZ, additionalBlocks, remainingClaimBlocks)
+				: messages.selectionTooExpensive.formatted(sizeX, sizeZ, additionalBlocks, remainingClaimBlocks));
+	}
+}
@@ -11,6 +11,8 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+
 /**
  * Handles a player creating a claim or a sub-claim.
  */
@@ -27,12 +29,16 @@ public class ClaimCreateHandler implements InteractionHandler {
 
 	@Override
 	public void handle(final @NotNull Player player, final @NotNull Location location) {
-		final var admin = user.adminMode && player.hasPermission("aurora.admin.claims");
+		final var admin = user.adminMode && user.hasPermission(User.PERMISSION_ADMIN_CLAIMS);
 		final var remainingClaimBlocks = user.totalClaimBlocks - user.usedClaimBlocks;
 		final var sizeX = Math.abs(initialLocation.getBlockX() - location.getBlockX()) + 1;
 		final var sizeZ = Math.abs(initialLocation.getBlockZ() - location.getBlockZ()) + 1;
+		Claim neighbour;
 
-		if (sizeX * sizeZ > remainingClaimBlocks && !admin && parent == null) {
+		if (!Aurora.db.breaker.isAvailable()) {
+			// New claims get their id from the database, so they can't be created during an outage
+			player.sendMessage(Aurora.instance.config.messages.databaseUnavailable);
+		} else if (sizeX * sizeZ > remainingClaimBlocks && !admin && parent == null) {
 			// The player does not have enough claim blocks to claim the area they selected
 			player.sendMessage(Aurora.instance.config.messages.needMoreClaimBlocks.formatted(
 					sizeX * sizeZ - remainingClaimBlocks
@@ -40,11 +46,45 @@ public class ClaimCreateHandler implements InteractionHandler {
 		} else if (parent == null && Claim.intersects(initialLocation, location, true)) {
 			// The area selected overlaps another claim
 			player.sendMessage(Aurora.instance.config.messages.wouldOverlapAnotherClaim);
-		} else if (parent != null && Claim.intersects(initialLocation, location, false, parent)) {
-			// The area selected overlaps another sub-claim
+		} else if (parent != null && !parent.encloses(
+				Math.min(initialLocation.getBlockX(), location.getBlockX()),
+				Math.min(initialLocation.getBlockY(), location.getBlockY()),
+				Math.min(initialLocation.getBlockZ(), location.getBlockZ()),
+				Math.max(initialLocation.getBlockX(), location.getBlockX()),
+				Math.max(initialLocation.getBlockY(), location.getBlockY()),
+				Math.max(initialLocation.getBlockZ(), location.getBlockZ()))) {
+			// The area selected is not completely inside the claim it subdivides
+			player.sendMessage(Aurora.instance.config.messages.invalidSubclaimLocation);
+		} else if (parent != null && !parent.getSubClaims(
+				Math.min(initialLocation.getBlockX(), location.getBlockX()),
+				Math.min(initialLocation.getBlockY(), location.getBlockY()),
+				Math.min(initialLocation.getBlockZ(), location.getBlockZ()),
+				Math.max(initialLocation.getBlockX(), location.getBlockX()),
+				Math.max(initialLocation.getBlockY(), location.getBlockY()),
+				Math.max(initialLocation.getBlockZ(), location.getBlockZ())).isEmpty()) {
+			// The area selected overlaps another sub-claim of the same claim
 			player.sendMessage(Aurora.instance.config.messages.wouldOverlapAnotherClaim);
+		} else if (parent == null && !admin && (neighbour = Claim.findWithinBuffer(initialLocation, location, player.getUniqueId())) != null) {
+			// The area selected is too close to another player's claim
+			Interactions.sendTooCloseMessage(player, neighbour, initialLocation, location);
 		} else {
 			// The claim is good to go
+			// Top level claims always range from the top of the world to the very bottom
+			if (parent == null) {
+				initialLocation.setY(initialLocation.getWorld().getMinHeight());
+				location.setY(location.getWorld().getMaxHeight());
+			}
+
+			// Create the new claim first, so that no claim blocks are charged if it can't be saved
+			final var claim = new Claim(parent == null ? player.getUniqueId() : parent.owner, "(unnamed)", initialLocation, location);
+			claim.isAdmin = admin;
+			claim.parent = parent;
+
+			if (!claim.save()) {
+				player.sendMessage(Aurora.instance.config.messages.databaseUnavailable);
+				return;
+			}
+
 			if (admin || parent != null) {
 				// We're creating an admin claim. The user's claim block balance is not touched.
 				player.sendMessage(Aurora.instance.config.messages.claimCreated.formatted(sizeX, sizeZ, 0));
@@ -60,22 +100,62 @@ public class ClaimCreateHandler implements InteractionHandler {
 				user.update();
 			}
 
-			// Top level claims always range from the top of the world to the very bottom
-			if (parent == null) {
-				initialLocation.setY(initialLocation.getWorld().getMinHeight());
-				location.setY(location.getWorld().getMaxHeight());
-			}
-
-			// Reset the selected claim corner
+			// Reset the selected claim corner and show the new claim's boundaries
 			user.currentInteraction = null;
+			Interactions.showClaimBoundaries(player, claim);
+		}
+	}
 
-			// Create the new claim and show its boundaries
-			final var claim = new Claim(parent == null ? player.getUniqueId() : parent.owner, "(unnamed)", initialLocation, location);
-			claim.isAdmin = admin;
-			claim.parent = parent;
-			claim.save();
+	@Override
+	public @NotNull SelectionPreview preview(final @NotNull Player player, final @NotNull Location location) {
+		final var messages = Aurora.instance.config.messages;
+		final var world = location.getWorld();
+		final var admin = user.adminMode && user.hasPermission(User.PERMISSION_ADMIN_CLAIMS);
+		final var remainingClaimBlocks = user.totalClaimBlocks - user.usedClaimBlocks;
 
-			Interactions.showClaimBoundaries(player, claim);
+		final var minX = Math.min(initialLocation.getBlockX(), location.getBlockX());
+		final var minZ = Math.min(initialLocation.getBlockZ(), location.getBlockZ());
+		final var maxX = Math.max(initialLocation.getBlockX(), location.getBlockX());
+		final var maxZ = Math.max(initialLocation.getBlockZ(), location.getBlockZ());
+
+		// Top level claims always range from the top of the world to the very bottom
+		final var minY = parent == null ? world.getMinHeight() : Math.min(initialLocation.getBlockY(), location.getBlockY());
+		final var maxY = parent == null ? world.getMaxHeight() : Math.max(initialLocation.getBlockY(), location.getBlockY());
+
+		final var sizeX = maxX - minX + 1;
+		final var sizeZ = maxZ - minZ + 1;
+		final var free = admin || parent != null;
+
+		if (parent != null && !parent.encloses(minX, minY, minZ, maxX, maxY, maxZ)) {
+			return new SelectionPreview(minX, minY, minZ, maxX, maxY, maxZ, List.of(parent), false,
+					messages.selectionOutsideParent.formatted(sizeX, sizeZ));
+		}
+
+		// Sub-claims may only overlap their siblings, everything else is inside the claim they subdivide
+		final var conflicts = parent != null
+				? parent.getSubClaims(minX, minY, minZ, maxX, maxY, maxZ)
+				: Aurora.db.claimIndex.getClaims(world.getName(), minX, Integer.MIN_VALUE, minZ, maxX, Integer.MAX_VALUE, maxZ);
+
+		conflicts.removeIf(c -> !c.overlapsColumns(minX, minZ, maxX, maxZ));
+
+		if (!conflicts.isEmpty()) {
+			return new SelectionPreview(minX, minY, minZ, maxX, maxY, maxZ, conflicts, false,
+					messages.selectionOverlaps.formatted(sizeX, sizeZ));
 		}
+
+		if (!free && sizeX * sizeZ > remainingClaimBlocks) {
+			return new SelectionPreview(minX, minY, minZ, maxX, maxY, maxZ, conflicts, false,
+					messages.selectionTooExpensive.formatted(sizeX, sizeZ, sizeX * sizeZ, remainingClaimBlocks));
+		}
+
+		final var neighbour = parent == null && !admin ? Claim.findWithinBuffer(initialLocation, location, player.getUniqueId()) : null;
+		if (neighbour != null) {
+			return new SelectionPreview(minX, minY, minZ, maxX, maxY, maxZ, List.of(neighbour), false,
+					messages.selectionTooClose.formatted(sizeX, sizeZ));
+		}
+
+		return new SelectionPreview(minX, minY, minZ, maxX, maxY, maxZ, conflicts, true, free
+				? messages.selectionFree.formatted(sizeX, sizeZ)
+				: messages.selectionValid.formatted(sizeX, sizeZ, sizeX * sizeZ, remainingClaimBlocks));
 	}
 }
@@ -0,0 +1,138 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.interactions;
+
+import de.lmichaelis.aurora.Aurora;
+import de.lmichaelis.aurora.Interactions;
+import de.lmichaelis.aurora.model.Claim;
+import de.lmichaelis.aurora.model.ClaimShape;
+import de.lmichaelis.aurora.model.User;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Handles a player creating a polygonal claim by clicking its corners one after another. Clicking the first
+ * corner again completes the polygon.
+ */
+public class ClaimPolygonHandler implements InteractionHandler {
+	private final IntArrayList corners = new IntArrayList();
+	private final User user;
+	private World world;
+
+	public ClaimPolygonHandler(final @NotNull User user) {
+		this.user = user;
+	}
+
+	@Override
+	public void handle(final @NotNull Player player, final @NotNull Location location) {
+		final int x = location.getBlockX(), z = location.getBlockZ();
+		final var config = Aurora.instance.config;
+		final var messages = config.messages;
+
+		if (world == null) {
+			world = location.getWorld();
+		} else if (location.getWorld() != world) {
+			// All corners have to be in the world of the first one
+			player.sendMessage(messages.polygonInOtherWorld);
+			return;
+		}
+
+		if (corners.size() < 6 || x != corners.getInt(0) || z != corners.getInt(1)) {
+			corners.add(x);
+			corners.add(z);
+
+			player.sendMessage(messages.polygonCornerSet.formatted(corners.size() / 2, x, z));
+			return;
+		}
+
+		if (!Aurora.db.breaker.isAvailable()) {
+			// New claims get their id from the database, so they can't be created during an outage
+			player.sendMessage(messages.databaseUnavailable);
+			return;
+		}
+
+		final var shape = ClaimShape.polygon(corners.toIntArray());
+		final var admin = user.adminMode && user.hasPermission(User.PERMISSION_ADMIN_CLAIMS);
+
+		user.refresh();
+		final var remainingClaimBlocks = user.totalClaimBlocks - user.usedClaimBlocks;
+
+		// Note: Computing the area builds the shape's masks for its whole bounding box, so the bounding box
+		//       is limited first
+		final var boundingArea = shape.boundingArea();
+		if (boundingArea > config.polygonClaimMaxArea) {
+			player.sendMessage(messages.polygonTooLarge.formatted(boundingArea, config.polygonClaimMaxArea));
+			return;
+		}
+
+		if (boundingArea > remainingClaimBlocks && !admin) {
+			// The player does not have enough claim blocks to claim the polygon's bounding box
+			player.sendMessage(messages.needMoreClaimBlocks.formatted(boundingArea - remainingClaimBlocks));
+			return;
+		}
+
+		if (!shape.isSimple()) {
+			player.sendMessage(messages.polygonIntersectsItself);
+			return;
+		}
+
+		final var area = (int) shape.area();
+		final var cornerA = new Location(world, shape.minX, world.getMinHeight(), shape.minZ);
+		final var cornerB = new Location(world, shape.maxX, world.getMaxHeight(), shape.maxZ);
+
+		if (area > remainingClaimBlocks && !admin) {
+			// The player does not have enough claim blocks to claim the area they selected
+			player.sendMessage(messages.needMoreClaimBlocks.formatted(area - remainingClaimBlocks));
+			return;
+		}
+
+		for (final var other : Claim.getClaims(world, shape.minX, Integer.MIN_VALUE, shape.minZ,
+				shape.maxX, Integer.MAX_VALUE, shape.maxZ)) {
+			if (other.parent == null && other.overlapsColumns(shape)) {
+				// The polygon overlaps another claim
+				player.sendMessage(messages.wouldOverlapAnotherClaim);
+				return;
+			}
+		}
+
+		// Note: The buffer is checked against the polygon's bounding box
+		final var neighbour = admin ? null : Claim.findWithinBuffer(cornerA, cornerB, player.getUniqueId());
+		if (neighbour != null) {
+			Interactions.sendTooCloseMessage(player, neighbour, cornerA, cornerB);
+			return;
+		}
+
+		// Create the new claim first, so that no claim blocks are charged if it can't be saved
+		final var claim = new Claim(player.getUniqueId(), "(unnamed)", cornerA, cornerB);
+		claim.isAdmin = admin;
+		claim.setShape(shape);
+
+		if (!claim.save()) {
+			player.sendMessage(messages.databaseUnavailable);
+			return;
+		}
+
+		if (!admin) {
+			user.usedClaimBlocks += area;
+			user.totalClaimsUsed += 1;
+			user.update();
+		}
+
+		player.sendMessage(messages.claimCreated.formatted(
+				shape.maxX - shape.minX + 1, shape.maxZ - shape.minZ + 1,
+				admin ? 0 : user.totalClaimBlocks - user.usedClaimBlocks
+		));
+
+		user.currentInteraction = null;
+		Interactions.showClaimBoundaries(player, claim);
+	}
+
+	@Override
+	public @Nullable SelectionPreview preview(final @NotNull Player player, final @NotNull Location location) {
+		return null;
+	}
+}
@@ -11,6 +11,7 @@ import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -64,6 +65,30 @@ public class ClaimResizeHandler implements InteractionHandler {
 		return true;
 	}
 
+	/**
+	 * Calculates the horizontal extent of the claim if the corner the player initially selected was
+	 * moved to the given location.
+	 *
+	 * @param location The new location of the corner.
+	 * @return The new extent as <tt>{minX, maxX, minZ, maxZ}</tt>.
+	 */
+	private int @NotNull [] getNewExtent(final @NotNull Location location) {
+		int newMinX = claim.minX, newMaxX = claim.maxX, newMinZ = claim.minZ, newMaxZ = claim.maxZ;
+		if (initialLocation.getBlockX() == claim.minX) {
+			newMinX = location.getBlockX();
+		} else {
+			newMaxX = location.getBlockX();
+		}
+
+		if (initialLocation.getBlockZ() == claim.minZ) {
+			newMinZ = location.getBlockZ();
+		} else {
+			newMaxZ = location.getBlockZ();
+		}
+
+		return new int[]{newMinX, newMaxX, newMinZ, newMaxZ};
+	}
+
 	@Override
 	public void handle(final @NotNull Player player, final @NotNull Location location) {
 		User owner = user;
@@ -87,18 +112,8 @@ public class ClaimResizeHandler implements InteractionHandler {
 		}
 
 		// Find the new claim extent
-		int newMinX = claim.minX, newMaxX = claim.maxX, newMinY = claim.minY, newMaxY = claim.maxY, newMinZ = claim.minZ, newMaxZ = claim.maxZ;
-		if (initialLocation.getBlockX() == claim.minX) {
-			newMinX = location.getBlockX();
-		} else {
-			newMaxX = location.getBlockX();
-		}
-
-		if (initialLocation.getBlockZ() == claim.minZ) {
-			newMinZ = location.getBlockZ();
-		} else {
-			newMaxZ = location.getBlockZ();
-		}
+		final var extent = getNewExtent(location);
+		int newMinX = extent[0], newMaxX = extent[1], newMinY = claim.minY, newMaxY = claim.maxY, newMinZ = extent[2], newMaxZ = extent[3];
 
 		// Make sure we're up-to-date on claim block balance
 		owner.refresh();
@@ -110,6 +125,7 @@ public class ClaimResizeHandler implements InteractionHandler {
 
 		final var newLocationMax = new Location(player.getWorld(), newMaxX, newMaxY, newMaxZ);
 		final var newLocationMin = new Location(player.getWorld(), newMinX, newMinY, newMinZ);
+		Claim neighbour;
 
 		if (additionalBlocks > remainingClaimBlocks && !claim.isAdmin && claim.parent == null) {
 			// The player does not have enough claim blocks
@@ -120,6 +136,10 @@ public class ClaimResizeHandler implements InteractionHandler {
 				claim.parent == null)) {
 			// The area selected overlaps another claim
 			player.sendMessage(Aurora.instance.config.messages.wouldOverlapAnotherClaim);
+		} else if (claim.parent == null && !claim.isAdmin &&
+				(neighbour = Claim.findWithinBuffer(newLocationMin, newLocationMax, claim.owner)) != null) {
+			// The resized area is too close to another player's claim
+			Interactions.sendTooCloseMessage(player, neighbour, newLocationMin, newLocationMax);
 		} else if (!checkSubdivisionsStillInside(claim, newLocationMin, newLocationMax)) {
 			// The resized area would not include some sub-claims
 			player.sendMessage("§cCannot resize because some of your subclaims would not be contained within the claim.");
@@ -152,4 +172,62 @@ public class ClaimResizeHandler implements InteractionHandler {
 			Interactions.showClaimBoundaries(player, claim);
 		}
 	}
+
+	@Override
+	public @NotNull SelectionPreview preview(final @NotNull Player player, final @NotNull Location location) {
+		final var messages = Aurora.instance.config.messages;
+		final var extent = getNewExtent(location);
+
+		final var minX = Math.min(extent[0], extent[1]);
+		final var maxX = Math.max(extent[0], extent[1]);
+		final var minZ = Math.min(extent[2], extent[3]);
+		final var maxZ = Math.max(extent[2], extent[3]);
+
+		final var sizeX = maxX - minX + 1;
+		final var sizeZ = maxZ - minZ + 1;
+		final var topLevel = claim.parent == null;
+
+		final var conflicts = Aurora.db.claimIndex.getClaims(
+				claim.world,
+				minX, topLevel ? Integer.MIN_VALUE : claim.minY, minZ,
+				maxX, topLevel ? Integer.MAX_VALUE : claim.maxY, maxZ
+		);
+
+		conflicts.removeIf(c -> c.id == claim.id || (topLevel && c.parent != null));
+		if (!conflicts.isEmpty()) {
+			return new SelectionPreview(minX, claim.minY, minZ, maxX, claim.maxY, maxZ, conflicts, false,
+					messages.selectionOverlaps.formatted(sizeX, sizeZ));
+		}
+
+		if (claim.isAdmin || !topLevel) {
+			return new SelectionPreview(minX, claim.minY, minZ, maxX, claim.maxY, maxZ, conflicts, true,
+					messages.selectionFree.formatted(sizeX, sizeZ));
+		}
+
+		// Only check the balance of owners who are online, the preview must not hit the database
+		final var onlineOwner = Bukkit.getPlayer(claim.owner);
+		final var owner = onlineOwner == null ? null : User.fromMetadata(onlineOwner);
+		final var additionalBlocks = sizeX * sizeZ - claim.size();
+
+		if (owner != null && additionalBlocks > owner.totalClaimBlocks - owner.usedClaimBlocks) {
+			return new SelectionPreview(minX, claim.minY, minZ, maxX, claim.maxY, maxZ, conflicts, false,
+					messages.selectionTooExpensive.formatted(sizeX, sizeZ, additionalBlocks,
+							owner.totalClaimBlocks - owner.usedClaimBlocks));
+		}
+
+		final var neighbour = Claim.findWithinBuffer(
+				new Location(location.getWorld(), minX, claim.minY, minZ),
+				new Location(location.getWorld(), maxX, claim.maxY, maxZ),
+				claim.owner
+		);
+
+		if (neighbour != null) {
+			return new SelectionPreview(minX, claim.minY, minZ, maxX, claim.maxY, maxZ, List.of(neighbour), false,
+					messages.selectionTooClose.formatted(sizeX, sizeZ));
+		}
+
+		return new SelectionPreview(minX, claim.minY, minZ, maxX, claim.maxY, maxZ, conflicts, true, owner == null
+				? messages.selectionFree.formatted(sizeX, sizeZ)
+				: messages.selectionValid.formatted(sizeX, sizeZ, additionalBlocks, owner.totalClaimBlocks - owner.usedClaimBlocks));
+	}
 }
@@ -5,10 +5,22 @@ package de.lmichaelis.aurora.interactions;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Handler for interactions with Aurora itself.
  */
 public interface InteractionHandler {
 	void handle(final @NotNull Player player, final @NotNull Location location);
+
+	/**
+	 * Checks what would happen if the player completed the interaction at the given location without
+	 * changing anything. This is called every few ticks while the interaction is in progress, so it may
+	 * only use in-memory state.
+	 *
+	 * @param player   The player interacting.
+	 * @param location The block the player is targeting.
+	 * @return A preview of the outcome or <tt>null</tt> if there is nothing to preview.
+	 */
+	@Nullable SelectionPreview preview(final @NotNull Player player, final @NotNull Location location);
 }
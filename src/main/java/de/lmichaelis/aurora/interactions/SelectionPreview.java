@@ -0,0 +1,25 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.interactions;
+
+import de.lmichaelis.aurora.model.Claim;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * The outcome of an interaction if the player were to complete it at the block they are currently targeting.
+ *
+ * @param minX      The minimum x-coordinate of the tentative selection.
+ * @param minY      The minimum y-coordinate of the tentative selection.
+ * @param minZ      The minimum z-coordinate of the tentative selection.
+ * @param maxX      The maximum x-coordinate of the tentative selection.
+ * @param maxY      The maximum y-coordinate of the tentative selection.
+ * @param maxZ      The maximum z-coordinate of the tentative selection.
+ * @param conflicts The claims which prevent the selection, i.e. because it would overlap them.
+ * @param valid     Whether the interaction would succeed.
+ * @param status    A short message describing the outcome.
+ */
+public record SelectionPreview(int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+							   @NotNull List<Claim> conflicts, boolean valid, @NotNull String status) {
+}
@@ -0,0 +1,47 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.jfr;
+
+import de.lmichaelis.aurora.stats.Statistics;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+
+import java.util.List;
+
+/**
+ * The base of all of Aurora's Flight Recorder events. All events are disabled by default and are enabled
+ * by the <tt>aurora.jfc</tt> settings shipped with the plugin, for example
+ * <tt>jcmd &lt;pid&gt; JFR.start settings=default settings=plugins/Aurora/aurora.jfc</tt>.
+ */
+public abstract class AuroraEvent extends Event {
+	private static final List<Class<? extends Event>> TYPES = List.of(
+			ClaimLookupEvent.class,
+			PermissionCheckEvent.class,
+			DatabaseCallEvent.class,
+			VisualizationRenderEvent.class
+	);
+
+	@Label("Source")
+	@Description("The event handler running when the event happened, if any")
+	public String source = Statistics.currentHandler;
+
+	/**
+	 * Registers all event types with the Flight Recorder so that they are available before they first happen.
+	 */
+	public static void registerAll() {
+		for (final var type : TYPES) {
+			FlightRecorder.register(type);
+		}
+	}
+
+	/**
+	 * Unregisters all event types so that the plugin's classes can be unloaded.
+	 */
+	public static void unregisterAll() {
+		for (final var type : TYPES) {
+			FlightRecorder.unregister(type);
+		}
+	}
+}
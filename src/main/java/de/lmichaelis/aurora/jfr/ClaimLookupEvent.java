@@ -0,0 +1,74 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.jfr;
+
+import de.lmichaelis.aurora.model.Claim;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A lookup in the claim index.
+ */
+@Name("aurora.ClaimLookup")
+@Label("Claim Lookup")
+@Category("Aurora")
+@Description("A lookup of claims at a block, in an area or near an area")
+@Enabled(false)
+@StackTrace(false)
+public final class ClaimLookupEvent extends AuroraEvent {
+	@Label("Kind")
+	@Description("block, area or nearest")
+	public String kind;
+
+	@Label("World")
+	public String world;
+
+	@Label("X")
+	public int x;
+
+	@Label("Y")
+	public int y;
+
+	@Label("Z")
+	public int z;
+
+	@Label("Hit")
+	@Description("Whether at least one claim was found")
+	public boolean hit;
+
+	@Label("Claim")
+	@Description("The id of the claim found or -1 if there is none or more than one")
+	public int claim;
+
+	@Label("Results")
+	public int results;
+
+	/**
+	 * Fills in all fields of the event.
+	 *
+	 * @param kind    The kind of lookup.
+	 * @param world   The name of the world.
+	 * @param x       The x-coordinate of the block or the area's minimum.
+	 * @param y       The y-coordinate of the block or the area's minimum.
+	 * @param z       The z-coordinate of the block or the area's minimum.
+	 * @param results The number of claims found.
+	 * @param claim   The claim found if there is exactly one.
+	 */
+	public void set(final @NotNull String kind, final @NotNull String world, final int x, final int y, final int z,
+					final int results, final @Nullable Claim claim) {
+		this.kind = kind;
+		this.world = world;
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.hit = results > 0;
+		this.results = results;
+		this.claim = claim == null ? -1 : claim.id;
+	}
+}
@@ -0,0 +1,32 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A call to one of Aurora's DAOs.
+ */
+@Name("aurora.DatabaseCall")
+@Label("Database Call")
+@Category("Aurora")
+@Enabled(false)
+public final class DatabaseCallEvent extends AuroraEvent {
+	@Label("Table")
+	public String table;
+
+	@Label("Statement Kind")
+	@Description("The DAO method called, i.e. queryForId or update")
+	public String kind;
+
+	@Label("Rows")
+	@Description("The number of rows returned or changed or -1 if unknown")
+	public int rows;
+
+	@Label("Succeeded")
+	public boolean succeeded;
+}
@@ -0,0 +1,31 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A check whether a player has a group in a claim.
+ */
+@Name("aurora.PermissionCheck")
+@Label("Permission Check")
+@Category("Aurora")
+@Enabled(false)
+@StackTrace(false)
+public final class PermissionCheckEvent extends AuroraEvent {
+	@Label("Claim")
+	public int claim;
+
+	@Label("Player")
+	public String player;
+
+	@Label("Required Group")
+	public String group;
+
+	@Label("Allowed")
+	public boolean allowed;
+}
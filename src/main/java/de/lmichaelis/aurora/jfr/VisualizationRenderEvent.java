@@ -0,0 +1,38 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A single render of a claim visualization.
+ */
+@Name("aurora.VisualizationRender")
+@Label("Visualization Render")
+@Category("Aurora")
+@Enabled(false)
+@StackTrace(false)
+public final class VisualizationRenderEvent extends AuroraEvent {
+	@Label("Player")
+	public String player;
+
+	@Label("Mode")
+	@Description("The class of the visualization")
+	public String mode;
+
+	@Label("World")
+	public String world;
+
+	@Label("Size")
+	@Description("The number of blocks in the visualized area, ignoring height")
+	public long size;
+
+	@Label("Cost")
+	@Description("The number of particles or blocks sent")
+	public int cost;
+}
@@ -4,9 +4,11 @@ package de.lmichaelis.aurora.listener;
 
 import de.lmichaelis.aurora.Aurora;
 import de.lmichaelis.aurora.AuroraUtil;
+import de.lmichaelis.aurora.BlockBatch;
 import de.lmichaelis.aurora.model.Claim;
 import de.lmichaelis.aurora.model.Group;
 import org.bukkit.Material;
+import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.block.data.type.Chest;
 import org.bukkit.block.data.type.Dispenser;
@@ -19,6 +21,7 @@ import org.bukkit.projectiles.BlockProjectileSource;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -121,30 +124,76 @@ public final class BlockEventListener extends BaseListener {
 		AuroraUtil.neutralizeExplosion(event.blockList());
 	}
 
-	@EventHandler(ignoreCancelled = true)
-	public void onPistonRetract(final @NotNull BlockPistonRetractEvent event) {
-		final var affected = event.getBlocks();
-		final var piston = event.getBlock();
+	/**
+	 * Checks whether a piston may move the given blocks by the given offset. The piston's claim and the
+	 * bounding box of all target positions are resolved once and the move is decided from the claims
+	 * overlapping that box.
+	 *
+	 * @param piston The piston moving the blocks.
+	 * @param blocks The blocks being moved.
+	 * @param dx     The x-offset from each block to the position to check.
+	 * @param dy     The y-offset from each block to the position to check.
+	 * @param dz     The z-offset from each block to the position to check.
+	 * @return <tt>true</tt> if the piston may move all blocks and <tt>false</tt> if not.
+	 */
+	private static boolean canPistonMove(final @NotNull Block piston, final @NotNull List<Block> blocks,
+										 final int dx, final int dy, final int dz) {
+		final var world = piston.getWorld();
+		final var claim = Claim.getClaim(world, piston.getX(), piston.getY(), piston.getZ());
+
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+
+		for (int i = 0; i < blocks.size(); i++) {
+			final var block = blocks.get(i);
+			final int x = block.getX() + dx, y = block.getY() + dy, z = block.getZ() + dz;
+
+			if (x < minX) minX = x;
+			if (y < minY) minY = y;
+			if (z < minZ) minZ = z;
+			if (x > maxX) maxX = x;
+			if (y > maxY) maxY = y;
+			if (z > maxZ) maxZ = z;
+		}
 
-		// Rule: Pistons that are not pulling any blocks can always retract
-		if (affected.isEmpty()) return;
+		// Rule: If all blocks are in the same claim as the piston it is allowed to move them. Shaped claims
+		//       may have notches between the corners of the box, so their blocks are checked one by one below.
+		if (claim != null && claim.getShape() == null && claim.contains(minX, minY, minZ) && claim.contains(maxX, maxY, maxZ))
+			return true;
+
+		// Rule: Pistons can move any block within claims of the same owner, and they can
+		//       move blocks outside of claims
+		final var candidates = Claim.getClaims(world, minX, minY, minZ, maxX, maxY, maxZ);
+		final var owner = claim == null ? null : claim.owner;
+		var hasForeignCandidates = false;
+
+		for (int i = 0; i < candidates.size() && !hasForeignCandidates; i++) {
+			hasForeignCandidates = owner == null || !owner.equals(candidates.get(i).owner);
+		}
+
+		if (!hasForeignCandidates) return true;
+
+		for (int i = 0; i < blocks.size(); i++) {
+			final var block = blocks.get(i);
+			final int x = block.getX() + dx, y = block.getY() + dy, z = block.getZ() + dz;
 
-		final var claim = Claim.getClaim(piston.getLocation());
+			if (claim != null && claim.contains(x, y, z)) continue;
 
-		// Rule: If all blocks are in the same claim as the piston it is allowed to retract
-		if (claim != null) {
-			if (affected.stream().allMatch(b -> claim.contains(b.getLocation()))) return;
+			final var other = Claim.getClaim(candidates, x, y, z);
+			if (other != null && (owner == null || !owner.equals(other.owner))) return false;
 		}
 
-		// Rule: Pistons can move any block within claims of the same owner and they can
-		//       move blocks outside of claims
-		if (affected.stream().allMatch(b -> {
-			if (claim != null && claim.contains(b.getLocation())) return true;
+		return true;
+	}
+
+	@EventHandler(ignoreCancelled = true)
+	public void onPistonRetract(final @NotNull BlockPistonRetractEvent event) {
+		final var affected = event.getBlocks();
 
-			final var otherClaim = Claim.getClaim(b.getLocation());
-			return otherClaim == null || (claim != null && Objects.equals(claim.owner, otherClaim.owner));
-		})) return;
+		// Rule: Pistons that are not pulling any blocks can always retract
+		if (affected.isEmpty()) return;
 
+		if (canPistonMove(event.getBlock(), affected, 0, 0, 0)) return;
 		event.setCancelled(true);
 	}
 
@@ -152,35 +201,12 @@ public final class BlockEventListener extends BaseListener {
 	public void onPistonExtend(final @NotNull BlockPistonExtendEvent event) {
 		final var affected = event.getBlocks();
 		final var piston = event.getBlock();
-		final var claim = Claim.getClaim(piston.getLocation());
+		final var direction = event.getDirection();
 
 		// Rule: Pistons cannot push into a claim (even without attached blocks).
-		if (affected.isEmpty()) {
-			final var relativeBlock = piston.getRelative(event.getDirection());
-			final var relativeClaim = Claim.getClaimIfDifferent(claim, relativeBlock.getLocation());
-
-			if ((claim == null && relativeClaim != null) ||
-					(relativeClaim != null && !Objects.equals(claim.owner, relativeClaim.owner)))
-				event.setCancelled(true);
-			return;
-		}
-
-		// Rule: If all blocks are in the same claim as the piston it is allowed to extend
-		if (claim != null) {
-			if (affected.stream().allMatch(b -> claim.contains(b.getRelative(event.getDirection()).getLocation())))
-				return;
-		}
-
-		// Rule: Pistons can move any block within claims of the same owner, and they can
-		//       move blocks outside of claims
-		if (affected.stream().allMatch(b -> {
-			final var relative = b.getRelative(event.getDirection());
-			if (claim != null && claim.contains(relative.getLocation())) return true;
-
-			final var otherClaim = Claim.getClaim(relative.getLocation());
-			return otherClaim == null || (claim != null && Objects.equals(claim.owner, otherClaim.owner));
-		})) return;
+		final var moved = affected.isEmpty() ? List.of(piston) : affected;
 
+		if (canPistonMove(piston, moved, direction.getModX(), direction.getModY(), direction.getModZ())) return;
 		event.setCancelled(true);
 	}
 
@@ -209,15 +235,33 @@ public final class BlockEventListener extends BaseListener {
 	public void onBlockPlaceMulti(final @NotNull BlockMultiPlaceEvent event) {
 		final var player = event.getPlayer();
 
-		if (event.getReplacedBlockStates().stream().allMatch(b -> {
-			final var claim = Claim.getClaim(b.getLocation());
-			return claim == null || claim.isAllowed(player, Group.BUILD);
-		})) return;
+		// Rule: Multi-blocks can only be placed if the player may build at every one of their blocks
+		if (BlockBatch.isAllowed(event.getBlock().getWorld(), event.getReplacedBlockStates(), BlockBatch.STATES,
+				claim -> claim == null || claim.isAllowed(player, Group.BUILD))) return;
 
 		player.sendMessage(plugin.config.messages.noPermission);
 		event.setCancelled(true);
 	}
 
+	@EventHandler(ignoreCancelled = true)
+	public void onBlockFertilize(final @NotNull BlockFertilizeEvent event) {
+		final var player = event.getPlayer();
+		final var block = event.getBlock();
+
+		if (player != null) {
+			// Rule: Players can only fertilize blocks in claims they have the BUILD group in
+			BlockBatch.removeDisallowed(block.getWorld(), event.getBlocks(), BlockBatch.STATES,
+					claim -> claim == null || claim.isAllowed(player, Group.BUILD));
+		} else {
+			// Rule: Dispensers can only fertilize blocks in claims with the same owner
+			final var sourceClaim = Claim.getClaim(block.getWorld(), block.getX(), block.getY(), block.getZ());
+			final var sourceOwner = sourceClaim == null ? null : sourceClaim.owner;
+
+			BlockBatch.removeDisallowed(block.getWorld(), event.getBlocks(), BlockBatch.STATES,
+					claim -> claim == null || Objects.equals(sourceOwner, claim.owner));
+		}
+	}
+
 	@EventHandler(ignoreCancelled = true)
 	public void onBlockBurn(final @NotNull BlockBurnEvent event) {
 		final var claim = Claim.getClaim(event.getBlock().getLocation());
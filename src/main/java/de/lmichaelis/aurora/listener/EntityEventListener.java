@@ -2,8 +2,10 @@
 // SPDX-License-Identifier: LGPL-3.0-only
 package de.lmichaelis.aurora.listener;
 
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
 import de.lmichaelis.aurora.Aurora;
 import de.lmichaelis.aurora.AuroraUtil;
+import de.lmichaelis.aurora.EntityClaimCache;
 import de.lmichaelis.aurora.Predicates;
 import de.lmichaelis.aurora.model.Claim;
 import de.lmichaelis.aurora.model.Group;
@@ -25,6 +27,16 @@ public final class EntityEventListener extends BaseListener {
 		super(plugin);
 	}
 
+	/**
+	 * Meta event handler for dropping the cached claim of entities leaving their world.
+	 *
+	 * @param event The event to process.
+	 */
+	@EventHandler
+	public void onEntityRemoveFromWorld(final @NotNull EntityRemoveFromWorldEvent event) {
+		EntityClaimCache.invalidate(event.getEntity());
+	}
+
 	@EventHandler(ignoreCancelled = true)
 	public void onEntityBreakDoor(final @NotNull EntityBreakDoorEvent event) {
 		final var claim = Claim.getClaim(event.getBlock().getLocation());
@@ -50,7 +62,7 @@ public final class EntityEventListener extends BaseListener {
 			// Rule: Don't allow damaging named hostile entities in claims
 			// TODO: Disable this check when a player has taken damage from the entity or disable
 			//       named hostile entities tracking players
-			final var claim = Claim.getClaim(entity.getLocation());
+			final var claim = EntityClaimCache.getClaim(entity);
 			if (claim != null) event.setCancelled(true);
 
 			return;
@@ -63,7 +75,7 @@ public final class EntityEventListener extends BaseListener {
 
 		// Rule: Allow damage from block explosions only in claims with explosions enabled
 		if (cause == EntityDamageEvent.DamageCause.BLOCK_EXPLOSION) {
-			final var claim = Claim.getClaim(entity.getLocation());
+			final var claim = EntityClaimCache.getClaim(entity);
 			if (claim != null && claim.allowsExplosions) return;
 		}
 
@@ -73,7 +85,7 @@ public final class EntityEventListener extends BaseListener {
 			return;
 		}
 
-		final var claim = Claim.getClaim(entity.getLocation());
+		final var claim = EntityClaimCache.getClaim(entity);
 		var damager = entityEvent.getDamager();
 
 		// Rule: Always allow any other entities to be damaged outside of claims
@@ -207,7 +219,7 @@ public final class EntityEventListener extends BaseListener {
 		// We only care about players here
 		if (!(entity instanceof final Player player)) return;
 
-		final var claim = Claim.getClaim(vehicle.getLocation());
+		final var claim = EntityClaimCache.getClaim(vehicle);
 
 		// Rule: Allow pushing all vehicles outside of claim
 		if (claim == null) return;
@@ -226,7 +238,7 @@ public final class EntityEventListener extends BaseListener {
 		// Quirk: Shooting chorus flowers does not emit a `EntityChangeBlockEvent`
 		// Rule: Only players with the BUILD group may break chorus flowers in claims
 		if (block != null && block.getType() == Material.CHORUS_FLOWER) {
-			final var claim = Claim.getClaim(block.getLocation());
+			final var claim = Claim.getClaim(block.getWorld(), block.getX(), block.getY(), block.getZ());
 
 			if (claim == null) return;
 			if (projectile.getShooter() instanceof final Player player) {
@@ -244,51 +256,72 @@ public final class EntityEventListener extends BaseListener {
 	public void onPotionSplash(final @NotNull PotionSplashEvent event) {
 		final var potion = event.getPotion();
 		final var thrower = potion.getShooter();
-		final var player = thrower instanceof Player ? (Player) thrower : null;
 
 		// I don't know when it can be null. Just ignore potions thrown by nobody.
 		if (thrower == null) return;
 
+		// Rule: Always allow all positive potion effects
+		var hasNegativeEffect = false;
 		for (final var effect : potion.getEffects()) {
-			// Rule: Always allow all positive potion effects
 			if (Predicates.isPositiveEffect(effect)) continue;
 
-			for (final var affected : event.getAffectedEntities()) {
-				// Rule: Always affect the thrower with negative effects
-				if (affected == thrower) continue;
-				if (!Predicates.isProtectedEntity(affected)) continue;
+			hasNegativeEffect = true;
+			break;
+		}
+
+		if (!hasNegativeEffect) return;
 
-				// TODO: Cache the claim for better efficiency
-				final var claim = Claim.getClaim(affected.getEyeLocation());
+		final var player = thrower instanceof final Player p ? p : null;
+		final var source = thrower instanceof final BlockProjectileSource s ? s : null;
 
-				// Rule: Players can apply all effects to all entities outside of claims
-				if (claim == null) return;
+		// Only resolved if a dispenser actually hits an entity inside a claim
+		Claim sourceClaim = null;
+		var sourceClaimResolved = false;
+		var pvpPrevented = false;
+		var permissionDenied = false;
 
-				if (player != null) {
-					// Rule: Players cannot be damaged by potions thrown by other players
-					//       in PvP-protected claims
-					if (affected instanceof Player) {
-						if (!claim.pvpEnabled) {
-							event.setIntensity(affected, 0);
-							player.sendMessage(plugin.config.messages.pvpDisabled);
-						}
+		for (final var affected : event.getAffectedEntities()) {
+			// Rule: Always affect the thrower with negative effects
+			if (affected == thrower) continue;
+
+			final var isPlayer = affected instanceof Player;
+			if (!isPlayer && !Predicates.isProtectedEntity(affected)) continue;
 
-						continue;
-					}
+			final var claim = Claim.getClaim(affected.getEyeLocation());
 
+			// Rule: Players can apply all effects to all entities outside of claims
+			if (claim == null) continue;
+
+			// Rule: Players can always be affected by negative effects in PvP-enabled claims
+			if (isPlayer && claim.pvpEnabled) continue;
+
+			if (player != null) {
+				if (isPlayer) {
+					// Rule: Players cannot be damaged by potions thrown by other players
+					//       in PvP-protected claims
+					event.setIntensity(affected, 0);
+					pvpPrevented = true;
+				} else if (!claim.isAllowed(player, Group.BUILD)) {
 					// Rule: Players can only apply negative effects to entities inside
 					//       claims if they have the BUILD group
-					if (!claim.isAllowed(player, Group.BUILD)) {
-						event.setIntensity(affected, 0);
-						player.sendMessage(plugin.config.messages.noPermission);
-					}
-				} else if (thrower instanceof final BlockProjectileSource source) {
-					// Rule: Dispensers in a claim owned by the same player can apply negative
-					//       effects to entities inside it.
-					final var sourceClaim = Claim.getClaimIfDifferent(claim, source.getBlock().getLocation());
-					if (sourceClaim == null || sourceClaim.owner != claim.owner) event.setIntensity(affected, 0);
+					event.setIntensity(affected, 0);
+					permissionDenied = true;
 				}
+			} else if (source != null) {
+				// Rule: Dispensers in a claim owned by the same player can apply negative
+				//       effects to entities inside it.
+				if (!sourceClaimResolved) {
+					final var block = source.getBlock();
+					sourceClaim = Claim.getClaim(block.getWorld(), block.getX(), block.getY(), block.getZ());
+					sourceClaimResolved = true;
+				}
+
+				if (sourceClaim == null || !Objects.equals(sourceClaim.owner, claim.owner))
+					event.setIntensity(affected, 0);
 			}
 		}
+
+		if (pvpPrevented) player.sendMessage(plugin.config.messages.pvpDisabled);
+		if (permissionDenied) player.sendMessage(plugin.config.messages.noPermission);
 	}
 }
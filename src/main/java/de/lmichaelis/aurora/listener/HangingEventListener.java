@@ -3,6 +3,7 @@
 package de.lmichaelis.aurora.listener;
 
 import de.lmichaelis.aurora.Aurora;
+import de.lmichaelis.aurora.EntityClaimCache;
 import de.lmichaelis.aurora.model.Claim;
 import de.lmichaelis.aurora.model.Group;
 import org.bukkit.entity.Entity;
@@ -30,7 +31,7 @@ public final class HangingEventListener extends BaseListener {
 		// Rule: Hanging entities can always break due to physics (like the supporting block being removed)
 		if (cause == HangingBreakEvent.RemoveCause.PHYSICS) return;
 
-		final var claim = Claim.getClaim(subject.getLocation());
+		final var claim = EntityClaimCache.getClaim(subject);
 
 		// Rule: Hanging entities can always be destroyed outside of claims
 		if (claim == null) return;
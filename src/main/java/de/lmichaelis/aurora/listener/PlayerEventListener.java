@@ -3,6 +3,7 @@
 package de.lmichaelis.aurora.listener;
 
 import de.lmichaelis.aurora.Aurora;
+import de.lmichaelis.aurora.EntityClaimCache;
 import de.lmichaelis.aurora.Interactions;
 import de.lmichaelis.aurora.Predicates;
 import de.lmichaelis.aurora.model.Claim;
@@ -10,14 +11,12 @@ import de.lmichaelis.aurora.model.Group;
 import de.lmichaelis.aurora.model.User;
 import org.bukkit.GameMode;
 import org.bukkit.Material;
-import org.bukkit.block.Container;
 import org.bukkit.block.data.Waterlogged;
 import org.bukkit.entity.*;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.player.*;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.metadata.FixedMetadataValue;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -40,7 +39,10 @@ public final class PlayerEventListener extends BaseListener {
 		final var player = event.getPlayer();
 		var user = User.get(player.getUniqueId());
 
-		if (user == null) {
+		if (user == null && !Aurora.db.breaker.isAvailable()) {
+			// Don't mistake the player for a new one while the database is unavailable
+			user = User.placeholder(player.getUniqueId());
+		} else if (user == null) {
 			// This user has logged in for the first time
 			user = new User(player.getUniqueId(), plugin.config.initialClaimBlocks);
 			user.save();
@@ -52,7 +54,42 @@ public final class PlayerEventListener extends BaseListener {
 		}
 
 		// Save the user object as metadata on the player
-		player.setMetadata(User.METADATA_KEY, new FixedMetadataValue(plugin, user));
+		User.attach(player, user);
+	}
+
+	/**
+	 * Meta event handler for releasing the user object associated with the leaving player.
+	 *
+	 * @param event The event to process.
+	 */
+	@EventHandler
+	public void onPlayerQuit(final @NotNull PlayerQuitEvent event) {
+		User.detach(event.getPlayer());
+	}
+
+	/**
+	 * Meta event handler for refreshing the permission snapshot of players changing worlds, since
+	 * permission plugins might grant different permissions per world.
+	 *
+	 * @param event The event to process.
+	 */
+	@EventHandler
+	public void onPlayerChangedWorld(final @NotNull PlayerChangedWorldEvent event) {
+		final var user = User.fromMetadata(event.getPlayer());
+		if (user != null) user.refreshPermissions(event.getPlayer());
+	}
+
+	/**
+	 * Meta event handler for refreshing the permission snapshot of players whenever their command list
+	 * is re-sent. Permission plugins (like LuckPerms) do this every time they recalculate a player's
+	 * permissions, which makes this event a convenient recalculation hook.
+	 *
+	 * @param event The event to process.
+	 */
+	@EventHandler
+	public void onPlayerCommandSend(final @NotNull PlayerCommandSendEvent event) {
+		final var user = User.fromMetadata(event.getPlayer());
+		if (user != null) user.refreshPermissions(event.getPlayer());
 	}
 
 	@EventHandler()
@@ -97,7 +134,7 @@ public final class PlayerEventListener extends BaseListener {
 		} else { // if (action == Action.RIGHT_CLICK_BLOCK)
 			final var subjectType = subject.getType();
 
-			if (subject.getState() instanceof Container) {
+			if (Predicates.isContainer(subjectType)) {
 				// Rule: Inventories in claims may only be accessed by players with the CONTAINERS permission
 				// TODO: Special rule for lecterns: Viewing a book in a lectern should be allowed with
 				//       the ACCESS permission
@@ -131,7 +168,7 @@ public final class PlayerEventListener extends BaseListener {
 	public void onPlayerInteractEntity(final @NotNull PlayerInteractEntityEvent event) {
 		final var player = event.getPlayer();
 		final var entity = event.getRightClicked();
-		final var claim = Claim.getClaim(entity.getLocation());
+		final var claim = EntityClaimCache.getClaim(entity);
 
 		// Rule: You can interact with all entities outside of claims without restriction
 		if (claim == null) return;
@@ -163,7 +200,7 @@ public final class PlayerEventListener extends BaseListener {
 		// Rule: If nothing was caught, ignore the event
 		if (subject == null) return;
 
-		final var claim = Claim.getClaim(subject.getLocation());
+		final var claim = EntityClaimCache.getClaim(subject);
 
 		// Rule: Players can fish all entities outside of claims without restriction
 		if (claim == null) return;
@@ -3,6 +3,7 @@
 package de.lmichaelis.aurora.listener;
 
 import de.lmichaelis.aurora.Aurora;
+import de.lmichaelis.aurora.EntityClaimCache;
 import de.lmichaelis.aurora.model.Claim;
 import de.lmichaelis.aurora.model.Group;
 import org.bukkit.entity.Player;
@@ -32,7 +33,7 @@ public final class VehicleEventListener extends BaseListener {
 			if (shooter instanceof Player) player = (Player) shooter;
 		}
 
-		final var claim = Claim.getClaim(vehicle.getLocation());
+		final var claim = EntityClaimCache.getClaim(vehicle);
 
 		// Rule: Vehicles outside of claims can always be damaged
 		if (claim == null) return;
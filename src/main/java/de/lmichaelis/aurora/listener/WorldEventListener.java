@@ -3,11 +3,14 @@
 package de.lmichaelis.aurora.listener;
 
 import de.lmichaelis.aurora.Aurora;
+import de.lmichaelis.aurora.BlockBatch;
 import de.lmichaelis.aurora.model.Claim;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.world.StructureGrowEvent;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Objects;
+
 /**
  * Event handlers for world events.
  */
@@ -20,16 +23,10 @@ public final class WorldEventListener extends BaseListener {
 	public void onStructureGrow(final @NotNull StructureGrowEvent event) {
 		final var root = event.getLocation();
 		final var rootClaim = Claim.getClaim(root);
+		final var rootOwner = rootClaim == null ? null : rootClaim.owner;
 
 		// Rule: Trees can't grow into neighboring claims
-		final var iter = event.getBlocks().iterator();
-		while (iter.hasNext()) {
-			final var block = iter.next();
-			final var blockClaim = Claim.getClaimIfDifferent(rootClaim, block.getLocation());
-
-			if (blockClaim != null && (rootClaim == null || rootClaim.owner != blockClaim.owner)) {
-				iter.remove();
-			}
-		}
+		BlockBatch.removeDisallowed(root.getWorld(), event.getBlocks(), BlockBatch.STATES,
+				claim -> claim == null || Objects.equals(rootOwner, claim.owner));
 	}
 }
@@ -3,19 +3,27 @@
 package de.lmichaelis.aurora.model;
 
 import com.j256.ormlite.dao.ForeignCollection;
+import com.j256.ormlite.field.DataType;
 import com.j256.ormlite.field.DatabaseField;
 import com.j256.ormlite.field.ForeignCollectionField;
 import com.j256.ormlite.table.DatabaseTable;
 import de.lmichaelis.aurora.Aurora;
+import de.lmichaelis.aurora.AuroraUtil;
+import de.lmichaelis.aurora.jfr.PermissionCheckEvent;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import org.bukkit.Location;
 import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.sql.SQLException;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
@@ -26,6 +34,12 @@ import java.util.UUID;
  */
 @DatabaseTable(tableName = "claims")
 public final class Claim {
+	/**
+	 * Incremented every time any claim is created, changed or deleted. Caches of claim lookups
+	 * compare against it to find out whether they are still valid.
+	 */
+	public static int revision = 0;
+
 	@DatabaseField(generatedId = true)
 	public int id;
 
@@ -77,9 +91,25 @@ public final class Claim {
 	@DatabaseField(canBeNull = false, columnName = "is_restricted", defaultValue = "false")
 	public boolean restricted;
 
+	@DatabaseField(columnName = "shape", dataType = DataType.LONG_STRING)
+	public String shapeData;
+
 	@ForeignCollectionField(foreignFieldName = "claim", eager = true)
 	public ForeignCollection<UserGroup> userGroups;
 
+	// The parsed shapeData. The claim's bounds are the bounding box of the shape.
+	private ClaimShape shape = null;
+
+	// The sub-claims of this claim, maintained by the ClaimIndex. For lookups, every sub-claim is registered with
+	// all cells of 16x16 columns it overlaps. The cells are built on the first lookup after a sub-claim changed.
+	private static final int CHILD_CELL_SHIFT = 4;
+	final ArrayList<Claim> children = new ArrayList<>();
+	private Long2ObjectOpenHashMap<Claim[]> childCells = null;
+
+	// All groups which apply to this claim including inherited ones, valid for the given claim revision
+	private HashMap<UUID, Group> effectiveGroups = null;
+	private int effectiveGroupsRevision = 0;
+
 	public Claim(final @NotNull UUID owner, final @NotNull String name,
 				 final @NotNull Location cornerA, final @NotNull Location cornerB) {
 		this.owner = owner;
@@ -123,13 +153,123 @@ public final class Claim {
 	protected Claim() {
 	}
 
-	public List<Claim> getSubClaims() {
-		try {
-			return Aurora.db.claims.queryBuilder().where().eq("parent_id", this.id).query();
-		} catch (SQLException e) {
-			Aurora.logger.severe("Failed to get subclaims of claim %d: %s".formatted(id, e));
-			return List.of();
+	/**
+	 * Gets a snapshot of the claim's sub-claims, which may be modified while iterating over it.
+	 *
+	 * @return All sub-claims of this claim.
+	 */
+	public @NotNull List<Claim> getSubClaims() {
+		return List.copyOf(children);
+	}
+
+	/**
+	 * Gets all direct sub-claims of this claim which overlap the given box.
+	 *
+	 * @param minX The minimum x-coordinate of the box.
+	 * @param minY The minimum y-coordinate of the box.
+	 * @param minZ The minimum z-coordinate of the box.
+	 * @param maxX The maximum x-coordinate of the box.
+	 * @param maxY The maximum y-coordinate of the box.
+	 * @param maxZ The maximum z-coordinate of the box.
+	 * @return A new list of the overlapping sub-claims.
+	 */
+	public @NotNull List<Claim> getSubClaims(final int minX, final int minY, final int minZ,
+											 final int maxX, final int maxY, final int maxZ) {
+		final var result = new ArrayList<Claim>();
+
+		for (final var child : children) {
+			if (child.overlaps(minX, minY, minZ, maxX, maxY, maxZ)) result.add(child);
 		}
+
+		return result;
+	}
+
+	void addChild(final @NotNull Claim child) {
+		children.add(child);
+		childCells = null;
+	}
+
+	void removeChild(final @NotNull Claim child) {
+		children.remove(child);
+		childCells = null;
+	}
+
+	void invalidateChildren() {
+		childCells = null;
+	}
+
+	/**
+	 * Gets the direct sub-claim containing the given block. Only the sub-claims overlapping the block's cell of
+	 * 16x16 columns are checked, so the cost does not depend on the number of siblings elsewhere in the claim.
+	 * <p>
+	 * In the worst case, all sub-claims share the block's cell, i.e. many tiny sub-claims within one cell or
+	 * sub-claims stacked on top of each other, and all of them are checked. Building the cells takes one entry
+	 * per sub-claim and cell it overlaps, which is about its area divided by 256.
+	 *
+	 * @param x The x-coordinate of the block.
+	 * @param y The y-coordinate of the block.
+	 * @param z The z-coordinate of the block.
+	 * @return The sub-claim containing the block or <tt>null</tt> if there is none.
+	 */
+	public @Nullable Claim getSubClaim(final int x, final int y, final int z) {
+		if (children.isEmpty()) return null;
+		if (childCells == null) childCells = buildChildCells();
+
+		final var cell = childCells.get(AuroraUtil.chunkKey(x >> CHILD_CELL_SHIFT, z >> CHILD_CELL_SHIFT));
+		if (cell == null) return null;
+
+		for (final var child : cell) {
+			if (child.contains(x, y, z)) return child;
+		}
+
+		return null;
+	}
+
+	private @NotNull Long2ObjectOpenHashMap<Claim[]> buildChildCells() {
+		final var cells = new Long2ObjectOpenHashMap<ArrayList<Claim>>();
+
+		for (final var child : children) {
+			for (int cellX = child.minX >> CHILD_CELL_SHIFT; cellX <= child.maxX >> CHILD_CELL_SHIFT; cellX++) {
+				for (int cellZ = child.minZ >> CHILD_CELL_SHIFT; cellZ <= child.maxZ >> CHILD_CELL_SHIFT; cellZ++) {
+					cells.computeIfAbsent(AuroraUtil.chunkKey(cellX, cellZ), k -> new ArrayList<>(2)).add(child);
+				}
+			}
+		}
+
+		final var result = new Long2ObjectOpenHashMap<Claim[]>(cells.size());
+		for (final var cell : cells.long2ObjectEntrySet()) {
+			result.put(cell.getLongKey(), cell.getValue().toArray(new Claim[0]));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Gets the innermost sub-claim of this claim containing the given block, descending through all levels
+	 * of nesting.
+	 *
+	 * @param x The x-coordinate of the block.
+	 * @param y The y-coordinate of the block.
+	 * @param z The z-coordinate of the block.
+	 * @return The innermost sub-claim containing the block or this claim if no sub-claim contains it.
+	 */
+	public @NotNull Claim getInnermostClaim(final int x, final int y, final int z) {
+		var claim = this;
+
+		for (var child = claim.getSubClaim(x, y, z); child != null; child = claim.getSubClaim(x, y, z)) {
+			claim = child;
+		}
+
+		return claim;
+	}
+
+	/**
+	 * @return The number of claims above this one.
+	 */
+	public int getDepth() {
+		var depth = 0;
+		for (var claim = parent; claim != null; claim = claim.parent) depth++;
+		return depth;
 	}
 
 	/**
@@ -139,25 +279,85 @@ public final class Claim {
 	 * @return A claim if there is one at the given location and <tt>null</tt> if not.
 	 */
 	public static @Nullable Claim getClaim(final @NotNull Location location) {
-		// TODO: When regions are loaded, query the database for claims in the region and cache them.
-		//       Don't unload them from the cache. If we want to find a chunk, iterate through all chunks
-		//       of the region of the interaction.
-		try {
-			return Aurora.db.claims.queryBuilder().where()
-					.eq("world", location.getWorld().getName()).and()
-					.le("min_x", location.getBlockX()).and()
-					.ge("max_x", location.getBlockX()).and()
-					.le("min_y", location.getBlockY()).and()
-					.ge("max_y", location.getBlockY()).and()
-					.le("min_z", location.getBlockZ()).and()
-					.ge("max_z", location.getBlockZ())
-					.queryBuilder()
-					.orderByNullsLast("parent_id", false)
-					.queryForFirst();
-		} catch (SQLException e) {
-			Aurora.logger.severe("Failed to get claim at %s: %s".formatted(location, e));
-			return null;
+		return getClaim(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+	}
+
+	/**
+	 * Gets the claim at the given block coordinates.
+	 *
+	 * @param world The world to query a claim in.
+	 * @param x     The x-coordinate of the block.
+	 * @param y     The y-coordinate of the block.
+	 * @param z     The z-coordinate of the block.
+	 * @return A claim if there is one at the given location and <tt>null</tt> if not.
+	 */
+	public static @Nullable Claim getClaim(final @NotNull World world, final int x, final int y, final int z) {
+		return Aurora.db.claimIndex.getClaim(world.getName(), x, y, z);
+	}
+
+	/**
+	 * Gets all claims and sub-claims which overlap the given box. Sub-claims are ordered before
+	 * top-level claims so that {@link #getClaim(List, int, int, int)} finds the innermost claim first.
+	 *
+	 * @param world The world to query claims in.
+	 * @param minX  The minimum x-coordinate of the box.
+	 * @param minY  The minimum y-coordinate of the box.
+	 * @param minZ  The minimum z-coordinate of the box.
+	 * @param maxX  The maximum x-coordinate of the box.
+	 * @param maxY  The maximum y-coordinate of the box.
+	 * @param maxZ  The maximum z-coordinate of the box.
+	 * @return All claims overlapping the box.
+	 */
+	public static @NotNull List<Claim> getClaims(final @NotNull World world, final int minX, final int minY, final int minZ,
+												 final int maxX, final int maxY, final int maxZ) {
+		return Aurora.db.claimIndex.getClaims(world.getName(), minX, minY, minZ, maxX, maxY, maxZ);
+	}
+
+	/**
+	 * Finds all claims and sub-claims within the given horizontal distance of a block column,
+	 * ordered by their distance to it.
+	 *
+	 * @param world  The world to search claims in.
+	 * @param x      The x-coordinate of the column.
+	 * @param z      The z-coordinate of the column.
+	 * @param radius The maximum distance of a claim's closest edge to the column.
+	 * @return All claims within the radius, closest first.
+	 */
+	public static @NotNull List<Claim> findWithin(final @NotNull World world, final int x, final int z, final int radius) {
+		final var candidates = Aurora.db.claimIndex.getClaims(
+				world.getName(),
+				x - radius, Integer.MIN_VALUE, z - radius,
+				x + radius, Integer.MAX_VALUE, z + radius
+		);
+
+		final var result = new ArrayList<Claim>(candidates.size());
+		final var squaredRadius = (long) radius * radius;
+
+		for (final var candidate : candidates) {
+			if (candidate.squaredDistance(x, z) <= squaredRadius) result.add(candidate);
 		}
+
+		result.sort(Comparator.comparingLong(c -> c.squaredDistance(x, z)));
+		return result;
+	}
+
+	/**
+	 * Gets the innermost claim containing the given block from a list of candidates previously
+	 * returned by {@link #getClaims(World, int, int, int, int, int, int)}.
+	 *
+	 * @param candidates The candidate claims to search.
+	 * @param x          The x-coordinate of the block.
+	 * @param y          The y-coordinate of the block.
+	 * @param z          The z-coordinate of the block.
+	 * @return The claim containing the block or <tt>null</tt> if none of the candidates contain it.
+	 */
+	public static @Nullable Claim getClaim(final @NotNull List<Claim> candidates, final int x, final int y, final int z) {
+		for (int i = 0; i < candidates.size(); i++) {
+			final var candidate = candidates.get(i);
+			if (candidate.contains(x, y, z)) return candidate;
+		}
+
+		return null;
 	}
 
 	public static @Nullable Claim getClaimIfDifferent(final @Nullable Claim other, final @NotNull Location location) {
@@ -167,6 +367,45 @@ public final class Claim {
 		return getClaim(location);
 	}
 
+	/**
+	 * Finds the top-level claim closest to the given block column.
+	 *
+	 * @param world       The world to search in.
+	 * @param x           The x-coordinate of the column.
+	 * @param z           The z-coordinate of the column.
+	 * @param maxDistance The maximum distance to search.
+	 * @return The closest claim or <tt>null</tt> if there is none within the distance.
+	 */
+	public static @Nullable Claim findNearest(final @NotNull World world, final int x, final int z, final int maxDistance) {
+		return Aurora.db.claimIndex.findNearest(world.getName(), x, z, x, z, maxDistance, c -> true);
+	}
+
+	/**
+	 * Finds a top-level claim of another owner which is within the configured claim buffer distance of the
+	 * given area. Admin claims are ignored.
+	 *
+	 * @param areaCornerA The first corner of the area.
+	 * @param areaCornerB The second corner of the area.
+	 * @param owner       The owner of the area.
+	 * @return The closest claim violating the buffer or <tt>null</tt> if there is none.
+	 */
+	public static @Nullable Claim findWithinBuffer(final @NotNull Location areaCornerA, final @NotNull Location areaCornerB,
+												   final @NotNull UUID owner) {
+		final var world = areaCornerA.getWorld().getName();
+		final var buffer = Aurora.instance.config.getClaimBufferDistance(world);
+		if (buffer <= 0) return null;
+
+		return Aurora.db.claimIndex.findNearest(
+				world,
+				Math.min(areaCornerA.getBlockX(), areaCornerB.getBlockX()),
+				Math.min(areaCornerA.getBlockZ(), areaCornerB.getBlockZ()),
+				Math.max(areaCornerA.getBlockX(), areaCornerB.getBlockX()),
+				Math.max(areaCornerA.getBlockZ(), areaCornerB.getBlockZ()),
+				buffer,
+				c -> !c.isAdmin && !Objects.equals(c.owner, owner)
+		);
+	}
+
 	public static boolean intersects(final @NotNull Location areaCornerA, final @NotNull Location areaCornerB, boolean ignoreY) {
 		return intersects(areaCornerA, areaCornerB, ignoreY, null);
 	}
@@ -184,42 +423,160 @@ public final class Claim {
 		final var minY = Math.min(areaCornerA.getBlockY(), areaCornerB.getBlockY());
 		final var maxY = Math.max(areaCornerA.getBlockY(), areaCornerB.getBlockY());
 
-		try {
-			final var query = Aurora.db.claims.queryBuilder().where()
-					.eq("world", areaCornerA.getWorld().getName()).and()
-					.le("min_x", maxX).and()
-					.ge("max_x", minX).and()
-					.le("min_z", maxZ).and()
-					.ge("max_z", minZ);
-
-			if (ignoredClaim != null) query.and().ne("id", ignoredClaim.id);
-			if (ignoreSubclaims) query.and().isNull("parent_id");
-
-			if (!ignoreY) {
-				query.and()
-						.le("min_y", maxY).and()
-						.ge("max_y", minY);
-			}
-
-			return query.countOf() > 0;
-		} catch (SQLException e) {
-			Aurora.logger.severe("Failed to get claim: %s".formatted(e));
+		for (final var claim : Aurora.db.claimIndex.getClaims(
+				areaCornerA.getWorld().getName(),
+				minX, ignoreY ? Integer.MIN_VALUE : minY, minZ,
+				maxX, ignoreY ? Integer.MAX_VALUE : maxY, maxZ
+		)) {
+			if (ignoredClaim != null && claim.id == ignoredClaim.id) continue;
+			if (ignoreSubclaims && claim.parent != null) continue;
+			if (!claim.overlapsColumns(minX, minZ, maxX, maxZ)) continue;
 			return true;
 		}
+
+		return false;
+	}
+
+	/**
+	 * Checks whether the claim overlaps the given box.
+	 *
+	 * @param minX The minimum x-coordinate of the box.
+	 * @param minY The minimum y-coordinate of the box.
+	 * @param minZ The minimum z-coordinate of the box.
+	 * @param maxX The maximum x-coordinate of the box.
+	 * @param maxY The maximum y-coordinate of the box.
+	 * @param maxZ The maximum z-coordinate of the box.
+	 * @return <tt>true</tt> if the claim overlaps the box and <tt>false</tt> if not.
+	 */
+	public boolean overlaps(final int minX, final int minY, final int minZ,
+							final int maxX, final int maxY, final int maxZ) {
+		return this.minX <= maxX && this.maxX >= minX &&
+				this.minY <= maxY && this.maxY >= minY &&
+				this.minZ <= maxZ && this.maxZ >= minZ;
+	}
+
+	/**
+	 * Checks whether the given box is completely inside the claim.
+	 *
+	 * @param minX The minimum x-coordinate of the box.
+	 * @param minY The minimum y-coordinate of the box.
+	 * @param minZ The minimum z-coordinate of the box.
+	 * @param maxX The maximum x-coordinate of the box.
+	 * @param maxY The maximum y-coordinate of the box.
+	 * @param maxZ The maximum z-coordinate of the box.
+	 * @return <tt>true</tt> if the box is inside the claim and <tt>false</tt> if not.
+	 */
+	public boolean encloses(final int minX, final int minY, final int minZ,
+							final int maxX, final int maxY, final int maxZ) {
+		return minX >= this.minX && maxX <= this.maxX &&
+				minY >= this.minY && maxY <= this.maxY &&
+				minZ >= this.minZ && maxZ <= this.maxZ &&
+				(shapeData == null || getShape().encloses(minX, minZ, maxX, maxZ));
+	}
+
+	/**
+	 * Checks whether any block column of the given area is part of the claim, taking its shape into account.
+	 *
+	 * @param minX The minimum x-coordinate of the area.
+	 * @param minZ The minimum z-coordinate of the area.
+	 * @param maxX The maximum x-coordinate of the area.
+	 * @param maxZ The maximum z-coordinate of the area.
+	 * @return <tt>true</tt> if the claim covers any column of the area and <tt>false</tt> if not.
+	 */
+	public boolean overlapsColumns(final int minX, final int minZ, final int maxX, final int maxZ) {
+		if (this.minX > maxX || this.maxX < minX || this.minZ > maxZ || this.maxZ < minZ) return false;
+		return shapeData == null || getShape().overlaps(minX, minZ, maxX, maxZ);
+	}
+
+	/**
+	 * Checks whether the claim shares any block column with the given shape.
+	 *
+	 * @param other The shape to check.
+	 * @return <tt>true</tt> if the claim overlaps the shape and <tt>false</tt> if not.
+	 */
+	public boolean overlapsColumns(final @NotNull ClaimShape other) {
+		if (minX > other.maxX || maxX < other.minX || minZ > other.maxZ || maxZ < other.minZ) return false;
+		return shapeData == null ? other.overlaps(minX, minZ, maxX, maxZ) : getShape().overlaps(other);
+	}
+
+	/**
+	 * Gets the claim's shape if it is not a single box.
+	 *
+	 * @return The shape or <tt>null</tt> if the claim is a single box.
+	 */
+	public @Nullable ClaimShape getShape() {
+		if (shape == null && shapeData != null) shape = ClaimShape.parse(shapeData);
+		return shape;
+	}
+
+	/**
+	 * Changes the shape of the claim. The claim's horizontal bounds are set to the bounding box of the shape.
+	 * The change has to be saved using {@link #update()}.
+	 *
+	 * @param shape The new shape or <tt>null</tt> to turn the claim back into a single box.
+	 */
+	public void setShape(final @Nullable ClaimShape shape) {
+		this.shape = shape;
+		this.shapeData = shape == null ? null : shape.serialize();
+
+		if (shape != null) {
+			this.minX = shape.minX;
+			this.minZ = shape.minZ;
+			this.maxX = shape.maxX;
+			this.maxZ = shape.maxZ;
+		}
 	}
 
 	public int size() {
+		if (shapeData != null) return (int) getShape().area();
 		return ((maxX - minX) + 1) * ((maxZ - minZ) + 1);
 	}
 
+	/**
+	 * Calculates the squared horizontal distance between the claim's closest edge and the given block column.
+	 *
+	 * @param x The x-coordinate of the column.
+	 * @param z The z-coordinate of the column.
+	 * @return The squared distance or <tt>0</tt> if the column is inside the claim.
+	 */
+	public long squaredDistance(final int x, final int z) {
+		return squaredDistance(x, z, x, z);
+	}
+
+	/**
+	 * Calculates the squared horizontal distance between the claim's and the given area's closest edges.
+	 * Directly adjacent areas are one block apart. For claims with a shape, the distance is measured to the
+	 * shape's columns rather than its bounding box.
+	 *
+	 * @param minX The minimum x-coordinate of the area.
+	 * @param minZ The minimum z-coordinate of the area.
+	 * @param maxX The maximum x-coordinate of the area.
+	 * @param maxZ The maximum z-coordinate of the area.
+	 * @return The squared distance or <tt>0</tt> if the area overlaps the claim.
+	 */
+	public long squaredDistance(final int minX, final int minZ, final int maxX, final int maxZ) {
+		final long dx = Math.max(0, Math.max((long) this.minX - maxX, (long) minX - this.maxX));
+		final long dz = Math.max(0, Math.max((long) this.minZ - maxZ, (long) minZ - this.maxZ));
+
+		// Shaped claims don't cover their whole bounding box, so measure to the columns they do cover
+		if (shapeData == null) return dx * dx + dz * dz;
+		return getShape().squaredDistance(minX, minZ, maxX, maxZ);
+	}
+
 	/**
 	 * Saves the claim into the database.
+	 *
+	 * @return <tt>true</tt> if the claim was saved and <tt>false</tt> if the database failed.
 	 */
-	public void save() {
+	public boolean save() {
 		try {
 			Aurora.db.claims.create(this);
+			Aurora.db.claimIndex.add(this);
+			revision++;
+			return true;
 		} catch (SQLException e) {
 			Aurora.logger.severe("Failed to create a claim: %s".formatted(e));
+			return false;
 		}
 	}
 
@@ -229,6 +586,8 @@ public final class Claim {
 	public void update() {
 		try {
 			Aurora.db.claims.update(this);
+			Aurora.db.claimIndex.update(this);
+			revision++;
 		} catch (SQLException e) {
 			Aurora.logger.severe("Failed to update a claim: %s".formatted(e));
 		}
@@ -240,6 +599,8 @@ public final class Claim {
 	public void delete() {
 		try {
 			Aurora.db.claims.delete(this);
+			Aurora.db.claimIndex.remove(this);
+			revision++;
 		} catch (SQLException e) {
 			Aurora.logger.severe("Failed to delete a claim: %s".formatted(e));
 		}
@@ -262,7 +623,8 @@ public final class Claim {
 
 			final var userGroup = new UserGroup(this, player.getUniqueId(), group);
 			Aurora.db.userGroups.create(userGroup);
-			Aurora.db.claims.refresh(this);
+			refresh();
+			revision++;
 		} catch (SQLException e) {
 			Aurora.logger.severe("Failed to set a player group: %s".formatted(e));
 		}
@@ -276,33 +638,77 @@ public final class Claim {
 	 */
 	public Group getGroup(final @NotNull OfflinePlayer player) {
 		if (Objects.equals(player.getUniqueId(), this.owner)) return Group.OWNER;
-		if (this.userGroups == null) {
-			// Oh god, this is inefficient
-			try {
-				Aurora.db.claims.refresh(this);
-			} catch (SQLException e) {
-				e.printStackTrace();
-			}
+
+		if (effectiveGroups == null || effectiveGroupsRevision != revision) {
+			effectiveGroups = collectGroups();
+			effectiveGroupsRevision = revision;
 		}
 
-		for (final var group : this.userGroups) {
-			if (group.player.equals(player.getUniqueId())) {
-				return group.group;
+		return effectiveGroups.getOrDefault(player.getUniqueId(), Group.NONE);
+	}
+
+	/**
+	 * Flattens the groups of this claim and all claims it inherits from into one map. Groups set closer
+	 * to this claim take precedence. Restricted claims do not inherit groups from their parent.
+	 *
+	 * @return The groups of all players in the claim.
+	 */
+	private @NotNull HashMap<UUID, Group> collectGroups() {
+		final var groups = new HashMap<UUID, Group>();
+
+		for (var claim = this; claim != null; claim = claim.restricted ? null : claim.parent) {
+			if (claim.userGroups == null) {
+				// Oh god, this is inefficient
+				claim.refresh();
+				if (claim.userGroups == null) continue;
+			}
+
+			for (final var group : claim.userGroups) {
+				groups.putIfAbsent(group.player, group.group);
 			}
 		}
 
-		if (!restricted && parent != null) {
-			return this.parent.getGroup(player);
+		return groups;
+	}
+
+	/**
+	 * Re-reads the claim from the database, keeping the in-memory link to its parent.
+	 */
+	private void refresh() {
+		final var parent = this.parent;
+
+		try {
+			Aurora.db.claims.refresh(this);
+		} catch (SQLException e) {
+			Aurora.logger.severe("Failed to refresh claim %d: %s".formatted(id, e));
 		}
 
-		return Group.NONE;
+		this.parent = parent;
+		this.shape = null;
 	}
 
 	public boolean isAllowed(final @NotNull OfflinePlayer player, final Group group) {
+		final var event = new PermissionCheckEvent();
+		event.begin();
+
+		final var allowed = checkAllowed(player, group);
+
+		if (event.shouldCommit()) {
+			event.claim = id;
+			event.player = player.getUniqueId().toString();
+			event.group = String.valueOf(group);
+			event.allowed = allowed;
+			event.commit();
+		}
+
+		return allowed;
+	}
+
+	private boolean checkAllowed(final @NotNull OfflinePlayer player, final Group group) {
 		if (player instanceof final Player online) {
 			final var user = Objects.requireNonNull(User.fromMetadata(online));
 
-			if (this.isAdmin && online.hasPermission("aurora.admin.claims")) return true;
+			if (this.isAdmin && user.hasPermission(User.PERMISSION_ADMIN_CLAIMS)) return true;
 			if (user.adminMode && !isAdmin) return true;
 		}
 
@@ -316,12 +722,22 @@ public final class Claim {
 	 * @return <tt>true</tt> if the location is in the claim and <tt>false</tt> if it is not.
 	 */
 	public boolean contains(final @NotNull Location location) {
-		return location.getBlockX() >= minX &&
-				location.getBlockX() <= maxX &&
-				location.getBlockY() >= minY &&
-				location.getBlockY() <= maxY &&
-				location.getBlockZ() >= minZ &&
-				location.getBlockZ() <= maxZ &&
+		return contains(location.getBlockX(), location.getBlockY(), location.getBlockZ()) &&
 				Objects.equals(location.getWorld().getName(), world);
 	}
+
+	/**
+	 * Checks whether the given block coordinates are inside the claim. The claim's world is not checked.
+	 *
+	 * @param x The x-coordinate of the block.
+	 * @param y The y-coordinate of the block.
+	 * @param z The z-coordinate of the block.
+	 * @return <tt>true</tt> if the block is in the claim and <tt>false</tt> if it is not.
+	 */
+	public boolean contains(final int x, final int y, final int z) {
+		return x >= minX && x <= maxX &&
+				y >= minY && y <= maxY &&
+				z >= minZ && z <= maxZ &&
+				(shapeData == null || getShape().contains(x, z));
+	}
 }
@@ -0,0 +1,387 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.model;
+
+import com.j256.ormlite.dao.Dao;
+import de.lmichaelis.aurora.AuroraUtil;
+import de.lmichaelis.aurora.jfr.ClaimLookupEvent;
+import de.lmichaelis.aurora.stats.Statistics;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * An in-memory spatial index of all claims. The worlds are split into square cells of 64x64 blocks and
+ * every top-level claim is registered with all cells it overlaps, so point and range queries only look at the
+ * claims of a few cells instead of asking the database. Claims spanning a lot of cells (i.e. large admin claims)
+ * are kept in a separate list per world which is checked by every query instead. Sub-claims are not registered
+ * with any cell, they are found by scanning the {@link Claim#children} of the top-level claim instead.
+ * <p>
+ * The index is filled once when the database is connected and is kept up-to-date by {@link Claim#save()},
+ * {@link Claim#update()} and {@link Claim#delete()}. All claims returned from it are the same instances,
+ * so sub-claims reference the very same parent claim object the index holds and vice versa.
+ */
+public final class ClaimIndex {
+	private static final int CELL_SHIFT = 6;
+	private static final int LARGE_CLAIM_CELLS = 256;
+
+	private static final class WorldIndex {
+		private final Long2ObjectOpenHashMap<ArrayList<Claim>> cells = new Long2ObjectOpenHashMap<>();
+		private final ArrayList<Claim> large = new ArrayList<>();
+	}
+
+	private record Placement(@NotNull String world, int minCellX, int minCellZ, int maxCellX, int maxCellZ) {
+		private boolean isLarge() {
+			return (long) (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1) > LARGE_CLAIM_CELLS;
+		}
+	}
+
+	private final HashMap<String, WorldIndex> worlds = new HashMap<>();
+	private final Int2ObjectOpenHashMap<Claim> claims = new Int2ObjectOpenHashMap<>();
+	private final Int2ObjectOpenHashMap<Placement> placements = new Int2ObjectOpenHashMap<>();
+
+	/**
+	 * Loads all claims from the database into the index.
+	 *
+	 * @param dao The DAO to load claims from.
+	 * @throws SQLException If querying the claims fails.
+	 */
+	public void load(final @NotNull Dao<Claim, Integer> dao) throws SQLException {
+		final var all = dao.queryForAll();
+
+		for (final var claim : all) {
+			claims.put(claim.id, claim);
+		}
+
+		// ORMLite only fills in the id of foreign objects, so replace them with the loaded claims
+		for (final var claim : all) {
+			if (claim.parent != null) claim.parent = claims.get(claim.parent.id);
+
+			if (claim.parent != null) claim.parent.addChild(claim);
+			else place(claim);
+		}
+	}
+
+	/**
+	 * Gets the loaded claim with the given id.
+	 *
+	 * @param id The id of the claim.
+	 * @return The claim or <tt>null</tt> if there is no claim with that id.
+	 */
+	public @Nullable Claim get(final int id) {
+		return claims.get(id);
+	}
+
+	/**
+	 * @return The number of claims in the index.
+	 */
+	public int size() {
+		return claims.size();
+	}
+
+	void add(final @NotNull Claim claim) {
+		claims.put(claim.id, claim);
+
+		if (claim.parent != null) claim.parent.addChild(claim);
+		else place(claim);
+	}
+
+	void update(final @NotNull Claim claim) {
+		if (claim.parent != null) {
+			claim.parent.invalidateChildren();
+			return;
+		}
+
+		unplace(claim.id);
+		place(claim);
+	}
+
+	void remove(final @NotNull Claim claim) {
+		forget(claim);
+
+		if (claim.parent != null) claim.parent.removeChild(claim);
+		else unplace(claim.id);
+	}
+
+	private void forget(final @NotNull Claim claim) {
+		claims.remove(claim.id);
+
+		for (final var child : claim.children) {
+			forget(child);
+		}
+	}
+
+	/**
+	 * Gets the innermost claim containing the given block.
+	 *
+	 * @param world The name of the world to query a claim in.
+	 * @param x     The x-coordinate of the block.
+	 * @param y     The y-coordinate of the block.
+	 * @param z     The z-coordinate of the block.
+	 * @return A claim if there is one at the given location and <tt>null</tt> if not.
+	 */
+	public @Nullable Claim getClaim(final @NotNull String world, final int x, final int y, final int z) {
+		Statistics.countLookup(world, x, z);
+		final var event = new ClaimLookupEvent();
+		event.begin();
+
+		final var claim = findClaim(world, x, y, z);
+
+		if (event.shouldCommit()) {
+			event.set("block", world, x, y, z, claim == null ? 0 : 1, claim);
+			event.commit();
+		}
+
+		return claim;
+	}
+
+	private @Nullable Claim findClaim(final @NotNull String world, final int x, final int y, final int z) {
+		final var index = worlds.get(world);
+		if (index == null) return null;
+
+		final var cell = index.cells.get(AuroraUtil.chunkKey(x >> CELL_SHIFT, z >> CELL_SHIFT));
+		var found = cell == null ? null : Claim.getClaim(cell, x, y, z);
+		if (found == null) found = Claim.getClaim(index.large, x, y, z);
+		return found == null ? null : found.getInnermostClaim(x, y, z);
+	}
+
+	/**
+	 * Collects all claims overlapping the given box. Deeper nested sub-claims are ordered before their parents.
+	 *
+	 * @param world  The name of the world to query claims in.
+	 * @param minX   The minimum x-coordinate of the box.
+	 * @param minY   The minimum y-coordinate of the box.
+	 * @param minZ   The minimum z-coordinate of the box.
+	 * @param maxX   The maximum x-coordinate of the box.
+	 * @param maxY   The maximum y-coordinate of the box.
+	 * @param maxZ   The maximum z-coordinate of the box.
+	 * @return A new list of all claims overlapping the box.
+	 */
+	public @NotNull List<Claim> getClaims(final @NotNull String world, final int minX, final int minY, final int minZ,
+										  final int maxX, final int maxY, final int maxZ) {
+		Statistics.countLookup(world, (minX + maxX) / 2, (minZ + maxZ) / 2);
+		final var event = new ClaimLookupEvent();
+		event.begin();
+
+		final var claims = findClaims(world, minX, minY, minZ, maxX, maxY, maxZ);
+
+		if (event.shouldCommit()) {
+			event.set("area", world, minX, minY, minZ, claims.size(), claims.size() == 1 ? claims.get(0) : null);
+			event.commit();
+		}
+
+		return claims;
+	}
+
+	private @NotNull List<Claim> findClaims(final @NotNull String world, final int minX, final int minY, final int minZ,
+											final int maxX, final int maxY, final int maxZ) {
+		final var index = worlds.get(world);
+		if (index == null) return new ArrayList<>();
+
+		final var topLevel = new ArrayList<Claim>();
+
+		final int minCellX = minX >> CELL_SHIFT, minCellZ = minZ >> CELL_SHIFT;
+		final int maxCellX = maxX >> CELL_SHIFT, maxCellZ = maxZ >> CELL_SHIFT;
+
+		if ((long) (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1) > index.cells.size()) {
+			// The box covers more cells than there are populated ones, so scan those instead
+			for (final var cell : index.cells.long2ObjectEntrySet()) {
+				final var cellX = (int) (cell.getLongKey() >> 32);
+				final var cellZ = (int) cell.getLongKey();
+				if (cellX < minCellX || cellX > maxCellX || cellZ < minCellZ || cellZ > maxCellZ) continue;
+
+				collect(cell.getValue(), cellX, cellZ, minCellX, minCellZ, minX, minY, minZ, maxX, maxY, maxZ, topLevel);
+			}
+		} else {
+			for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+				for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+					final var cell = index.cells.get(AuroraUtil.chunkKey(cellX, cellZ));
+					if (cell == null) continue;
+
+					collect(cell, cellX, cellZ, minCellX, minCellZ, minX, minY, minZ, maxX, maxY, maxZ, topLevel);
+				}
+			}
+		}
+
+		for (final var claim : index.large) {
+			if (claim.overlaps(minX, minY, minZ, maxX, maxY, maxZ)) topLevel.add(claim);
+		}
+
+		// Descend level by level, then put the deepest level first so that the innermost claim is found first
+		final var levels = new ArrayList<List<Claim>>();
+		for (List<Claim> level = topLevel; !level.isEmpty(); ) {
+			levels.add(level);
+
+			final var next = new ArrayList<Claim>();
+			for (final var claim : level) {
+				next.addAll(claim.getSubClaims(minX, minY, minZ, maxX, maxY, maxZ));
+			}
+
+			level = next;
+		}
+
+		final var result = new ArrayList<Claim>();
+		for (int i = levels.size() - 1; i >= 0; i--) {
+			result.addAll(levels.get(i));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Finds the top-level claim closest to the given area by searching the cells around it in rings of increasing
+	 * distance. The search stops as soon as no cell in the next ring can contain a closer claim.
+	 *
+	 * @param world       The name of the world to search in.
+	 * @param minX        The minimum x-coordinate of the area.
+	 * @param minZ        The minimum z-coordinate of the area.
+	 * @param maxX        The maximum x-coordinate of the area.
+	 * @param maxZ        The maximum z-coordinate of the area.
+	 * @param maxDistance The maximum distance of claims to consider.
+	 * @param filter      Decides which claims to consider.
+	 * @return The closest claim accepted by the filter or <tt>null</tt> if there is none within the distance.
+	 */
+	public @Nullable Claim findNearest(final @NotNull String world, final int minX, final int minZ,
+									   final int maxX, final int maxZ, final int maxDistance,
+									   final @NotNull Predicate<Claim> filter) {
+		Statistics.countLookup(world, (minX + maxX) / 2, (minZ + maxZ) / 2);
+		final var event = new ClaimLookupEvent();
+		event.begin();
+
+		final var claim = findNearestClaim(world, minX, minZ, maxX, maxZ, maxDistance, filter);
+
+		if (event.shouldCommit()) {
+			event.set("nearest", world, minX, 0, minZ, claim == null ? 0 : 1, claim);
+			event.commit();
+		}
+
+		return claim;
+	}
+
+	private @Nullable Claim findNearestClaim(final @NotNull String world, final int minX, final int minZ,
+											 final int maxX, final int maxZ, final int maxDistance,
+											 final @NotNull Predicate<Claim> filter) {
+		final var index = worlds.get(world);
+		if (index == null) return null;
+
+		Claim nearest = null;
+		long nearestDistance = (long) maxDistance * maxDistance;
+
+		for (final var claim : index.large) {
+			final var distance = claim.squaredDistance(minX, minZ, maxX, maxZ);
+			if (distance > nearestDistance || !filter.test(claim)) continue;
+
+			nearest = claim;
+			nearestDistance = distance;
+		}
+
+		final int minCellX = minX >> CELL_SHIFT, minCellZ = minZ >> CELL_SHIFT;
+		final int maxCellX = maxX >> CELL_SHIFT, maxCellZ = maxZ >> CELL_SHIFT;
+		final var maxRing = (maxDistance >> CELL_SHIFT) + 1;
+
+		for (int ring = 0; ring <= maxRing; ring++) {
+			// Every block in this ring is at least this far away from the area
+			final long bound = (long) Math.max(0, ring - 1) << CELL_SHIFT;
+			if (bound * bound > nearestDistance) break;
+
+			for (int cellX = minCellX - ring; cellX <= maxCellX + ring; cellX++) {
+				final var edgeX = cellX == minCellX - ring || cellX == maxCellX + ring;
+
+				for (int cellZ = minCellZ - ring; cellZ <= maxCellZ + ring; cellZ++) {
+					// Only visit the outline of the ring; the inside has been searched already
+					if (ring > 0 && !edgeX && cellZ != minCellZ - ring && cellZ != maxCellZ + ring) {
+						cellZ = maxCellZ + ring - 1;
+						continue;
+					}
+
+					final var cell = index.cells.get(AuroraUtil.chunkKey(cellX, cellZ));
+					if (cell == null) continue;
+
+					for (final var claim : cell) {
+						final var distance = claim.squaredDistance(minX, minZ, maxX, maxZ);
+						if (distance > nearestDistance || (distance == nearestDistance && nearest != null)) continue;
+						if (!filter.test(claim)) continue;
+
+						nearest = claim;
+						nearestDistance = distance;
+					}
+				}
+			}
+		}
+
+		return nearest;
+	}
+
+	private static void collect(final @NotNull List<Claim> cell, final int cellX, final int cellZ,
+								final int minCellX, final int minCellZ,
+								final int minX, final int minY, final int minZ,
+								final int maxX, final int maxY, final int maxZ,
+								final @NotNull Collection<Claim> result) {
+		for (final var claim : cell) {
+			if (!claim.overlaps(minX, minY, minZ, maxX, maxY, maxZ)) continue;
+
+			// A claim is registered with every cell it overlaps. Only report it from the first cell
+			// both the claim and the box overlap to avoid duplicates.
+			if (cellX != Math.max(minCellX, claim.minX >> CELL_SHIFT)) continue;
+			if (cellZ != Math.max(minCellZ, claim.minZ >> CELL_SHIFT)) continue;
+
+			result.add(claim);
+		}
+	}
+
+	private void place(final @NotNull Claim claim) {
+		final var placement = new Placement(
+				claim.world,
+				claim.minX >> CELL_SHIFT,
+				claim.minZ >> CELL_SHIFT,
+				claim.maxX >> CELL_SHIFT,
+				claim.maxZ >> CELL_SHIFT
+		);
+
+		final var index = worlds.computeIfAbsent(claim.world, w -> new WorldIndex());
+		placements.put(claim.id, placement);
+
+		if (placement.isLarge()) {
+			index.large.add(claim);
+			return;
+		}
+
+		for (int cellX = placement.minCellX; cellX <= placement.maxCellX; cellX++) {
+			for (int cellZ = placement.minCellZ; cellZ <= placement.maxCellZ; cellZ++) {
+				index.cells.computeIfAbsent(AuroraUtil.chunkKey(cellX, cellZ), k -> new ArrayList<>(2)).add(claim);
+			}
+		}
+	}
+
+	private void unplace(final int id) {
+		final var placement = placements.remove(id);
+		if (placement == null) return;
+
+		final var index = worlds.get(placement.world);
+		if (index == null) return;
+
+		if (placement.isLarge()) {
+			index.large.removeIf(c -> c.id == id);
+			return;
+		}
+
+		for (int cellX = placement.minCellX; cellX <= placement.maxCellX; cellX++) {
+			for (int cellZ = placement.minCellZ; cellZ <= placement.maxCellZ; cellZ++) {
+				final var key = AuroraUtil.chunkKey(cellX, cellZ);
+				final var cell = index.cells.get(key);
+				if (cell == null) continue;
+
+				cell.removeIf(c -> c.id == id);
+				if (cell.isEmpty()) index.cells.remove(key);
+			}
+		}
+	}
+}
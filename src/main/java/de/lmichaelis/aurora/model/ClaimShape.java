@@ -0,0 +1,470 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.model;
+
+import de.lmichaelis.aurora.AuroraUtil;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The horizontal footprint of a claim which is not a single box. A shape either consists of multiple boxes
+ * or is a polygon whose corners are block columns. To keep point lookups as cheap as they are for boxes, the
+ * columns covered by the shape are stored as one 256-bit mask per chunk, which is computed the first time
+ * the chunk is looked at. Chunks which are covered completely or not at all share a single mask.
+ */
+public final class ClaimShape {
+	private static final long[] FULL = {-1L, -1L, -1L, -1L};
+	private static final long[] EMPTY = {0L, 0L, 0L, 0L};
+
+	public enum Kind {
+		BOXES,
+		POLYGON
+	}
+
+	public final @NotNull Kind kind;
+	public final int minX, minZ, maxX, maxZ;
+
+	// BOXES: minX, minZ, maxX, maxZ of every box; POLYGON: x, z of every corner
+	private final int @NotNull [] coordinates;
+	private final Long2ObjectOpenHashMap<long[]> masks = new Long2ObjectOpenHashMap<>();
+	private long area = -1;
+
+	private ClaimShape(final @NotNull Kind kind, final int @NotNull [] coordinates) {
+		this.kind = kind;
+		this.coordinates = coordinates;
+
+		int minX = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+		for (int i = 0; i < coordinates.length; i += 2) {
+			minX = Math.min(minX, coordinates[i]);
+			maxX = Math.max(maxX, coordinates[i]);
+			minZ = Math.min(minZ, coordinates[i + 1]);
+			maxZ = Math.max(maxZ, coordinates[i + 1]);
+		}
+
+		this.minX = minX;
+		this.minZ = minZ;
+		this.maxX = maxX;
+		this.maxZ = maxZ;
+	}
+
+	/**
+	 * Creates a shape consisting of the given boxes.
+	 *
+	 * @param boxes The minimum x, minimum z, maximum x and maximum z coordinate of each box.
+	 * @return A new shape.
+	 */
+	public static @NotNull ClaimShape boxes(final int @NotNull ... boxes) {
+		if (boxes.length == 0 || boxes.length % 4 != 0) {
+			throw new IllegalArgumentException("A box shape needs four coordinates per box");
+		}
+
+		final var normalized = boxes.clone();
+		for (int i = 0; i < normalized.length; i += 4) {
+			normalized[i] = Math.min(boxes[i], boxes[i + 2]);
+			normalized[i + 1] = Math.min(boxes[i + 1], boxes[i + 3]);
+			normalized[i + 2] = Math.max(boxes[i], boxes[i + 2]);
+			normalized[i + 3] = Math.max(boxes[i + 1], boxes[i + 3]);
+		}
+
+		return new ClaimShape(Kind.BOXES, normalized);
+	}
+
+	/**
+	 * Creates a polygon with the given corners.
+	 *
+	 * @param corners The x and z coordinate of each corner, in order.
+	 * @return A new shape.
+	 */
+	public static @NotNull ClaimShape polygon(final int @NotNull ... corners) {
+		if (corners.length < 6 || corners.length % 2 != 0) {
+			throw new IllegalArgumentException("A polygon needs at least three corners");
+		}
+
+		return new ClaimShape(Kind.POLYGON, corners.clone());
+	}
+
+	/**
+	 * Parses a shape previously produced by {@link #serialize()}.
+	 *
+	 * @param data The serialized shape.
+	 * @return The shape.
+	 */
+	public static @NotNull ClaimShape parse(final @NotNull String data) {
+		final var separator = data.indexOf(':');
+		final var kind = Kind.valueOf(data.substring(0, separator));
+		final var coordinates = Arrays.stream(data.substring(separator + 1).split(","))
+				.mapToInt(Integer::parseInt)
+				.toArray();
+
+		return kind == Kind.BOXES ? boxes(coordinates) : polygon(coordinates);
+	}
+
+	/**
+	 * @return The shape in a form suitable for storing it in the database.
+	 */
+	public @NotNull String serialize() {
+		final var builder = new StringBuilder(kind.name()).append(':');
+
+		for (int i = 0; i < coordinates.length; i++) {
+			if (i > 0) builder.append(',');
+			builder.append(coordinates[i]);
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Creates a new box shape which additionally contains the given box.
+	 *
+	 * @param minX The minimum x-coordinate of the box.
+	 * @param minZ The minimum z-coordinate of the box.
+	 * @param maxX The maximum x-coordinate of the box.
+	 * @param maxZ The maximum z-coordinate of the box.
+	 * @return A new shape.
+	 */
+	public @NotNull ClaimShape withBox(final int minX, final int minZ, final int maxX, final int maxZ) {
+		if (kind != Kind.BOXES) throw new IllegalStateException("Boxes can only be added to box shapes");
+
+		final var boxes = Arrays.copyOf(coordinates, coordinates.length + 4);
+		boxes[coordinates.length] = minX;
+		boxes[coordinates.length + 1] = minZ;
+		boxes[coordinates.length + 2] = maxX;
+		boxes[coordinates.length + 3] = maxZ;
+		return boxes(boxes);
+	}
+
+	/**
+	 * Checks whether the given block column is part of the shape.
+	 *
+	 * @param x The x-coordinate of the column.
+	 * @param z The z-coordinate of the column.
+	 * @return <tt>true</tt> if the column is part of the shape and <tt>false</tt> if not.
+	 */
+	public boolean contains(final int x, final int z) {
+		if (x < minX || x > maxX || z < minZ || z > maxZ) return false;
+
+		final var bit = ((z & 15) << 4) | (x & 15);
+		return (getMask(x >> 4, z >> 4)[bit >> 6] & (1L << bit)) != 0;
+	}
+
+	/**
+	 * Checks whether any column of the given area is part of the shape.
+	 *
+	 * @param minX The minimum x-coordinate of the area.
+	 * @param minZ The minimum z-coordinate of the area.
+	 * @param maxX The maximum x-coordinate of the area.
+	 * @param maxZ The maximum z-coordinate of the area.
+	 * @return <tt>true</tt> if the area overlaps the shape and <tt>false</tt> if not.
+	 */
+	public boolean overlaps(final int minX, final int minZ, final int maxX, final int maxZ) {
+		final int fromX = Math.max(minX, this.minX), fromZ = Math.max(minZ, this.minZ);
+		final int toX = Math.min(maxX, this.maxX), toZ = Math.min(maxZ, this.maxZ);
+
+		for (int chunkX = fromX >> 4; chunkX <= toX >> 4; chunkX++) {
+			for (int chunkZ = fromZ >> 4; chunkZ <= toZ >> 4; chunkZ++) {
+				final var mask = getMask(chunkX, chunkZ);
+				if (mask == EMPTY) continue;
+
+				final var area = getAreaMask(chunkX, chunkZ, fromX, fromZ, toX, toZ);
+				for (int i = 0; i < 4; i++) {
+					if ((mask[i] & area[i]) != 0) return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Checks whether all columns of the given area are part of the shape.
+	 *
+	 * @param minX The minimum x-coordinate of the area.
+	 * @param minZ The minimum z-coordinate of the area.
+	 * @param maxX The maximum x-coordinate of the area.
+	 * @param maxZ The maximum z-coordinate of the area.
+	 * @return <tt>true</tt> if the shape covers the area and <tt>false</tt> if not.
+	 */
+	public boolean encloses(final int minX, final int minZ, final int maxX, final int maxZ) {
+		if (minX < this.minX || maxX > this.maxX || minZ < this.minZ || maxZ > this.maxZ) return false;
+
+		for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+			for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+				final var mask = getMask(chunkX, chunkZ);
+				if (mask == FULL) continue;
+
+				final var area = getAreaMask(chunkX, chunkZ, minX, minZ, maxX, maxZ);
+				for (int i = 0; i < 4; i++) {
+					if ((mask[i] & area[i]) != area[i]) return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Checks whether the two shapes share any column.
+	 *
+	 * @param other The shape to check against.
+	 * @return <tt>true</tt> if the shapes overlap and <tt>false</tt> if not.
+	 */
+	public boolean overlaps(final @NotNull ClaimShape other) {
+		final int fromX = Math.max(minX, other.minX), fromZ = Math.max(minZ, other.minZ);
+		final int toX = Math.min(maxX, other.maxX), toZ = Math.min(maxZ, other.maxZ);
+
+		for (int chunkX = fromX >> 4; chunkX <= toX >> 4; chunkX++) {
+			for (int chunkZ = fromZ >> 4; chunkZ <= toZ >> 4; chunkZ++) {
+				final var mask = getMask(chunkX, chunkZ);
+				final var otherMask = other.getMask(chunkX, chunkZ);
+
+				for (int i = 0; i < 4; i++) {
+					if ((mask[i] & otherMask[i]) != 0) return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Calculates the squared horizontal distance between the closest column of the shape and the given area,
+	 * measured like the distance between boxes. Directly adjacent columns are one block apart.
+	 * <p>
+	 * For boxes, this is the smallest distance to any of the boxes. For polygons, the covered columns of the
+	 * chunks closest to the area are checked first and the search stops once no remaining chunk can be closer.
+	 * In the worst case, i.e. a thin polygon winding around the area, the masks of all chunks in the bounding
+	 * box are checked.
+	 *
+	 * @param minX The minimum x-coordinate of the area.
+	 * @param minZ The minimum z-coordinate of the area.
+	 * @param maxX The maximum x-coordinate of the area.
+	 * @param maxZ The maximum z-coordinate of the area.
+	 * @return The squared distance or <tt>0</tt> if the area overlaps the shape.
+	 */
+	public long squaredDistance(final int minX, final int minZ, final int maxX, final int maxZ) {
+		var nearest = Long.MAX_VALUE;
+
+		if (kind == Kind.BOXES) {
+			for (int i = 0; i < coordinates.length; i += 4) {
+				nearest = Math.min(nearest, squaredDistance(coordinates[i], coordinates[i + 1],
+						coordinates[i + 2], coordinates[i + 3], minX, minZ, maxX, maxZ));
+			}
+
+			return nearest;
+		}
+
+		// Visit the chunks in order of the smallest distance any of their columns can have
+		final int fromX = this.minX >> 4, fromZ = this.minZ >> 4, width = (this.maxX >> 4) - fromX + 1;
+		final var count = width * ((this.maxZ >> 4) - fromZ + 1);
+		final var bounds = new long[count];
+		final var order = new int[count];
+
+		for (int i = 0; i < count; i++) {
+			final int chunkX = fromX + i % width, chunkZ = fromZ + i / width;
+			bounds[i] = squaredDistance(chunkX << 4, chunkZ << 4, (chunkX << 4) | 15, (chunkZ << 4) | 15,
+					minX, minZ, maxX, maxZ);
+			order[i] = i;
+		}
+
+		IntArrays.quickSort(order, (a, b) -> Long.compare(bounds[a], bounds[b]));
+
+		for (final var i : order) {
+			if (bounds[i] >= nearest) break;
+
+			final int chunkX = fromX + i % width, chunkZ = fromZ + i / width;
+			final var mask = getMask(chunkX, chunkZ);
+			if (mask == EMPTY) continue;
+
+			for (int bit = 0; bit < 256; bit++) {
+				if ((mask[bit >> 6] & (1L << bit)) == 0) continue;
+
+				final int x = (chunkX << 4) | (bit & 15), z = (chunkZ << 4) | (bit >> 4);
+				nearest = Math.min(nearest, squaredDistance(x, z, x, z, minX, minZ, maxX, maxZ));
+			}
+		}
+
+		return nearest;
+	}
+
+	private static long squaredDistance(final int aMinX, final int aMinZ, final int aMaxX, final int aMaxZ,
+										final int bMinX, final int bMinZ, final int bMaxX, final int bMaxZ) {
+		final long dx = Math.max(0, Math.max((long) aMinX - bMaxX, (long) bMinX - aMaxX));
+		final long dz = Math.max(0, Math.max((long) aMinZ - bMaxZ, (long) bMinZ - aMaxZ));
+		return dx * dx + dz * dz;
+	}
+
+	/**
+	 * Checks whether the edges of a polygon only meet at the corners they share. Box shapes are always simple.
+	 *
+	 * @return <tt>true</tt> if the shape is simple and <tt>false</tt> if two of its edges cross or overlap.
+	 */
+	public boolean isSimple() {
+		if (kind == Kind.BOXES) return true;
+
+		final var corners = coordinates.length / 2;
+		for (int i = 0; i < corners; i++) {
+			for (int j = i + 1; j < corners; j++) {
+				if (j == i + 1) {
+					if (doubleBack(i, j, (j + 1) % corners)) return false;
+				} else if (i == 0 && j == corners - 1) {
+					if (doubleBack(j, 0, 1)) return false;
+				} else if (edgesTouch(i, j)) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Checks whether the two edges meeting at corner <tt>b</tt> have no length or run back along each other.
+	 */
+	private boolean doubleBack(final int a, final int b, final int c) {
+		final long ax = coordinates[2 * a] - coordinates[2 * b], az = coordinates[2 * a + 1] - coordinates[2 * b + 1];
+		final long cx = coordinates[2 * c] - coordinates[2 * b], cz = coordinates[2 * c + 1] - coordinates[2 * b + 1];
+
+		if ((ax == 0 && az == 0) || (cx == 0 && cz == 0)) return true;
+		return ax * cz - az * cx == 0 && ax * cx + az * cz > 0;
+	}
+
+	/**
+	 * Checks whether the edge starting at corner <tt>i</tt> and the edge starting at corner <tt>j</tt> share
+	 * any point.
+	 */
+	private boolean edgesTouch(final int i, final int j) {
+		final var corners = coordinates.length / 2;
+		final int a = 2 * i, b = 2 * ((i + 1) % corners), c = 2 * j, d = 2 * ((j + 1) % corners);
+
+		final var o1 = orientation(a, b, c);
+		final var o2 = orientation(a, b, d);
+		final var o3 = orientation(c, d, a);
+		final var o4 = orientation(c, d, b);
+
+		if (o1 != o2 && o3 != o4) return true;
+
+		return (o1 == 0 && onSegment(a, b, c)) || (o2 == 0 && onSegment(a, b, d)) ||
+				(o3 == 0 && onSegment(c, d, a)) || (o4 == 0 && onSegment(c, d, b));
+	}
+
+	private int orientation(final int a, final int b, final int c) {
+		final long abx = coordinates[b] - coordinates[a], abz = coordinates[b + 1] - coordinates[a + 1];
+		final long acx = coordinates[c] - coordinates[a], acz = coordinates[c + 1] - coordinates[a + 1];
+		return Long.signum(abx * acz - abz * acx);
+	}
+
+	private boolean onSegment(final int a, final int b, final int p) {
+		return coordinates[p] >= Math.min(coordinates[a], coordinates[b]) &&
+				coordinates[p] <= Math.max(coordinates[a], coordinates[b]) &&
+				coordinates[p + 1] >= Math.min(coordinates[a + 1], coordinates[b + 1]) &&
+				coordinates[p + 1] <= Math.max(coordinates[a + 1], coordinates[b + 1]);
+	}
+
+	/**
+	 * @return The number of columns in the shape's bounding box, which can be computed without building the
+	 * shape's masks.
+	 */
+	public long boundingArea() {
+		return ((long) maxX - minX + 1) * ((long) maxZ - minZ + 1);
+	}
+
+	/**
+	 * @return The number of block columns which are part of the shape. The masks of all chunks in the
+	 * bounding box are built for this, so check {@link #boundingArea()} first for untrusted shapes.
+	 */
+	public long area() {
+		if (area >= 0) return area;
+
+		var total = 0L;
+		for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+			for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+				for (final var word : getMask(chunkX, chunkZ)) {
+					total += Long.bitCount(word);
+				}
+			}
+		}
+
+		return area = total;
+	}
+
+	private long @NotNull [] getMask(final int chunkX, final int chunkZ) {
+		final var key = AuroraUtil.chunkKey(chunkX, chunkZ);
+		var mask = masks.get(key);
+
+		if (mask == null) {
+			mask = computeMask(chunkX, chunkZ);
+			masks.put(key, mask);
+		}
+
+		return mask;
+	}
+
+	private long @NotNull [] computeMask(final int chunkX, final int chunkZ) {
+		final var mask = new long[4];
+		var count = 0;
+
+		for (int bit = 0; bit < 256; bit++) {
+			final int x = (chunkX << 4) | (bit & 15), z = (chunkZ << 4) | (bit >> 4);
+			if (!covers(x, z)) continue;
+
+			mask[bit >> 6] |= 1L << bit;
+			count++;
+		}
+
+		if (count == 0) return EMPTY;
+		if (count == 256) return FULL;
+		return mask;
+	}
+
+	private static long @NotNull [] getAreaMask(final int chunkX, final int chunkZ,
+												final int minX, final int minZ, final int maxX, final int maxZ) {
+		final var mask = new long[4];
+		final int fromX = Math.max(minX, chunkX << 4) & 15, toX = Math.min(maxX, (chunkX << 4) | 15) & 15;
+		final int fromZ = Math.max(minZ, chunkZ << 4) & 15, toZ = Math.min(maxZ, (chunkZ << 4) | 15) & 15;
+		final long row = ((1L << (toX + 1)) - 1) & ~((1L << fromX) - 1);
+
+		for (int z = fromZ; z <= toZ; z++) {
+			final var bit = z << 4;
+			mask[bit >> 6] |= row << (bit & 63);
+		}
+
+		return mask;
+	}
+
+	/**
+	 * Checks whether the exact geometry of the shape covers the given column. Polygon corners and edges
+	 * run through the center of their blocks and columns on an edge are part of the polygon.
+	 */
+	private boolean covers(final int x, final int z) {
+		if (kind == Kind.BOXES) {
+			for (int i = 0; i < coordinates.length; i += 4) {
+				if (x >= coordinates[i] && z >= coordinates[i + 1] && x <= coordinates[i + 2] && z <= coordinates[i + 3])
+					return true;
+			}
+
+			return false;
+		}
+
+		var inside = false;
+		for (int i = 0, j = coordinates.length - 2; i < coordinates.length; j = i, i += 2) {
+			final long ax = coordinates[i], az = coordinates[i + 1], bx = coordinates[j], bz = coordinates[j + 1];
+
+			// Columns on an edge are always inside
+			if ((bx - ax) * (z - az) == (bz - az) * (x - ax) &&
+					x >= Math.min(ax, bx) && x <= Math.max(ax, bx) &&
+					z >= Math.min(az, bz) && z <= Math.max(az, bz)) {
+				return true;
+			}
+
+			// Even-odd rule, casting a ray towards positive x
+			if ((az > z) != (bz > z) && x < (bx - ax) * (z - az) / (double) (bz - az) + ax) {
+				inside = !inside;
+			}
+		}
+
+		return inside;
+	}
+}
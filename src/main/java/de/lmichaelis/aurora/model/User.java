@@ -7,13 +7,16 @@ import com.j256.ormlite.table.DatabaseTable;
 import de.lmichaelis.aurora.Aurora;
 import de.lmichaelis.aurora.AuroraUtil;
 import de.lmichaelis.aurora.interactions.InteractionHandler;
-import de.lmichaelis.aurora.task.ClaimVisualizationTask;
+import de.lmichaelis.aurora.task.ClaimVisualization;
+import de.lmichaelis.aurora.task.FakeBlockTracker;
 import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
 import org.bukkit.entity.Player;
+import org.bukkit.metadata.FixedMetadataValue;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.UUID;
 
@@ -24,9 +27,27 @@ import java.util.UUID;
 public final class User {
 	public static final String METADATA_KEY = "aurora.user";
 
+	public static final int PERMISSION_CLAIMS = 1;
+	public static final int PERMISSION_CLAIMS_OTHER = 1 << 1;
+	public static final int PERMISSION_ADMIN = 1 << 2;
+	public static final int PERMISSION_ADMIN_CLAIMS = 1 << 3;
+	public static final int PERMISSION_RELOAD = 1 << 4;
+
+	// Note: Indexed by the bit position of the respective PERMISSION_* flag
+	private static final String[] PERMISSION_NODES = {
+			"aurora.claims",
+			"aurora.claims.other",
+			"aurora.admin",
+			"aurora.admin.claims",
+			"aurora.reload",
+	};
+
+	private static final HashMap<UUID, User> ONLINE = new HashMap<>();
+
 	// TODO: User params per world!
 	// Temporary, non-persistent data
-	public final Int2ObjectArrayMap<ClaimVisualizationTask> visualizationTasks = new Int2ObjectArrayMap<>();
+	public final Int2ObjectArrayMap<ClaimVisualization> visualizations = new Int2ObjectArrayMap<>();
+	public final FakeBlockTracker fakeBlocks = new FakeBlockTracker();
 
 	@DatabaseField(id = true)
 	public UUID id;
@@ -40,7 +61,10 @@ public final class User {
 	@DatabaseField(canBeNull = false)
 	public int totalClaimsUsed = 0;
 
+	// Stands in for a user who joined while the database was unavailable and is never written
+	public boolean placeholder = false;
 	public boolean adminMode = false;
+	public int permissions = 0;
 	public InteractionHandler currentInteraction = null;
 
 	public User(final UUID id, int totalClaims) {
@@ -52,6 +76,19 @@ public final class User {
 	protected User() {
 	}
 
+	/**
+	 * Creates a user without any claim blocks for a player who joined while the database was unavailable.
+	 * The real user is loaded when the player joins again.
+	 *
+	 * @param id The UUID of the player.
+	 * @return A new user which is never written to the database.
+	 */
+	public static @NotNull User placeholder(final UUID id) {
+		final var user = new User(id, 0);
+		user.placeholder = true;
+		return user;
+	}
+
 	public static @Nullable User get(final UUID id) {
 		try {
 			return Aurora.db.users.queryForId(id);
@@ -62,9 +99,61 @@ public final class User {
 	}
 
 	public static @Nullable User fromMetadata(final @NotNull Player player) {
+		final var user = ONLINE.get(player.getUniqueId());
+		if (user != null) return user;
+
 		return AuroraUtil.getScalarMetadata(METADATA_KEY, player);
 	}
 
+	/**
+	 * Associates the given user with the given online player, so that {@link #fromMetadata(Player)} can find it
+	 * without going through the player's metadata.
+	 *
+	 * @param player The player who joined.
+	 * @param user   The user object of the player.
+	 */
+	public static void attach(final @NotNull Player player, final @NotNull User user) {
+		player.setMetadata(METADATA_KEY, new FixedMetadataValue(Aurora.instance, user));
+		ONLINE.put(player.getUniqueId(), user);
+		user.refreshPermissions(player);
+	}
+
+	/**
+	 * Removes the association between the given player and their user object.
+	 *
+	 * @param player The player who left.
+	 */
+	public static void detach(final @NotNull Player player) {
+		player.removeMetadata(METADATA_KEY, Aurora.instance);
+		ONLINE.remove(player.getUniqueId());
+	}
+
+	/**
+	 * Takes a snapshot of all of Aurora's permission nodes of the given player. Must be called again whenever
+	 * the player's permissions might have changed.
+	 *
+	 * @param player The player to take the snapshot of.
+	 */
+	public void refreshPermissions(final @NotNull Player player) {
+		var flags = 0;
+
+		for (int i = 0; i < PERMISSION_NODES.length; i++) {
+			if (player.hasPermission(PERMISSION_NODES[i])) flags |= 1 << i;
+		}
+
+		this.permissions = flags;
+	}
+
+	/**
+	 * Checks the player's permission snapshot for the given permission.
+	 *
+	 * @param permission One of the <tt>PERMISSION_*</tt> flags.
+	 * @return <tt>true</tt> if the player had the permission when the last snapshot was taken.
+	 */
+	public boolean hasPermission(final int permission) {
+		return (this.permissions & permission) == permission;
+	}
+
 	public @NotNull List<Claim> getClaims() {
 		try {
 			return Aurora.db.claims.queryBuilder().where()
@@ -77,6 +166,8 @@ public final class User {
 	}
 
 	public void update() {
+		if (placeholder) return;
+
 		try {
 			Aurora.db.users.update(this);
 		} catch (SQLException e) {
@@ -85,6 +176,8 @@ public final class User {
 	}
 
 	public void save() {
+		if (placeholder) return;
+
 		try {
 			Aurora.db.users.create(this);
 		} catch (SQLException e) {
@@ -93,6 +186,8 @@ public final class User {
 	}
 
 	public void refresh() {
+		if (placeholder) return;
+
 		try {
 			Aurora.db.users.refresh(this);
 		} catch (SQLException e) {
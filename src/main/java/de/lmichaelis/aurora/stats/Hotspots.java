@@ -0,0 +1,226 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.stats;
+
+import de.lmichaelis.aurora.AuroraUtil;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.jetbrains.annotations.NotNull;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Counts claim lookups and cancelled events per chunk and event type, so that the places causing most of
+ * Aurora's work (i.e. mob or flower farms) can be found. All counts decay exponentially over time, so they
+ * reflect recent activity. Only used on the main thread.
+ */
+public final class Hotspots {
+	private static final int MAX_IMAGE_SIZE = 2048;
+	private static final double MIN_COUNT = 0.01;
+
+	private final HashMap<String, Long2ObjectOpenHashMap<Counter>> worlds = new HashMap<>();
+
+	/**
+	 * The counts of a single chunk. Index 0 of the arrays per event type are lookups and index 1 are
+	 * cancellations.
+	 */
+	private static final class Counter {
+		final HashMap<String, double[]> byType = new HashMap<>();
+		double lookups;
+		double cancels;
+	}
+
+	/**
+	 * The counts of a single chunk at some point in time.
+	 *
+	 * @param world   The name of the world the chunk is in.
+	 * @param chunkX  The x-coordinate of the chunk.
+	 * @param chunkZ  The z-coordinate of the chunk.
+	 * @param lookups The decayed number of claim lookups in the chunk.
+	 * @param cancels The decayed number of events cancelled in the chunk.
+	 * @param topType The event type with the most lookups in the chunk.
+	 * @param byType  The decayed lookups and cancellations per event type.
+	 */
+	public record Hotspot(@NotNull String world, int chunkX, int chunkZ, double lookups, double cancels,
+						  @NotNull String topType, @NotNull Map<String, double[]> byType) {
+	}
+
+	/**
+	 * Records the claim lookups done and whether the event was cancelled while handling an event.
+	 *
+	 * @param world     The name of the world the lookups were done in.
+	 * @param blockX    The x-coordinate of a block looked up.
+	 * @param blockZ    The z-coordinate of a block looked up.
+	 * @param type      The type of event handled.
+	 * @param lookups   The number of claim lookups done.
+	 * @param cancelled Whether the event was cancelled.
+	 */
+	public void record(final @NotNull String world, final int blockX, final int blockZ, final @NotNull String type,
+					   final long lookups, final boolean cancelled) {
+		final var chunks = worlds.computeIfAbsent(world, w -> new Long2ObjectOpenHashMap<>());
+		final var key = AuroraUtil.chunkKey(blockX >> 4, blockZ >> 4);
+
+		var counter = chunks.get(key);
+		if (counter == null) chunks.put(key, counter = new Counter());
+
+		final var counts = counter.byType.computeIfAbsent(type, t -> new double[2]);
+		counts[0] += lookups;
+		counter.lookups += lookups;
+
+		if (cancelled) {
+			counts[1]++;
+			counter.cancels++;
+		}
+	}
+
+	/**
+	 * Multiplies all counts by the given factor and forgets chunks whose counts have become negligible.
+	 *
+	 * @param factor The factor to multiply all counts with, between 0 and 1.
+	 */
+	public void decay(final double factor) {
+		for (final var chunks : worlds.values()) {
+			final var iterator = chunks.values().iterator();
+
+			while (iterator.hasNext()) {
+				final var counter = iterator.next();
+				counter.lookups *= factor;
+				counter.cancels *= factor;
+
+				if (counter.lookups < MIN_COUNT && counter.cancels < MIN_COUNT) {
+					iterator.remove();
+					continue;
+				}
+
+				counter.byType.values().removeIf(counts -> {
+					counts[0] *= factor;
+					counts[1] *= factor;
+					return counts[0] < MIN_COUNT && counts[1] < MIN_COUNT;
+				});
+			}
+		}
+
+		worlds.values().removeIf(Map::isEmpty);
+	}
+
+	/**
+	 * Forgets all counts.
+	 */
+	public void reset() {
+		worlds.clear();
+	}
+
+	/**
+	 * @return All chunks with any counts, the ones with the most lookups first.
+	 */
+	public @NotNull List<Hotspot> snapshot() {
+		final var hotspots = new ArrayList<Hotspot>();
+
+		for (final var world : worlds.entrySet()) {
+			for (final var chunk : world.getValue().long2ObjectEntrySet()) {
+				final var counter = chunk.getValue();
+				final var byType = new HashMap<String, double[]>();
+				var topType = "";
+				var topLookups = -1.0;
+
+				for (final var type : counter.byType.entrySet()) {
+					byType.put(type.getKey(), type.getValue().clone());
+
+					if (type.getValue()[0] > topLookups) {
+						topType = type.getKey();
+						topLookups = type.getValue()[0];
+					}
+				}
+
+				hotspots.add(new Hotspot(world.getKey(), (int) (chunk.getLongKey() >> 32), (int) chunk.getLongKey(),
+						counter.lookups, counter.cancels, topType, byType));
+			}
+		}
+
+		hotspots.sort(Comparator.comparingDouble(Hotspot::lookups).reversed());
+		return hotspots;
+	}
+
+	/**
+	 * Writes all counts to a CSV file, one row per chunk and event type.
+	 *
+	 * @param file The file to write to.
+	 * @throws IOException If writing the file fails.
+	 */
+	public void writeCsv(final @NotNull File file) throws IOException {
+		try (final var writer = new FileWriter(file)) {
+			writer.write("world,chunk_x,chunk_z,event,lookups,cancels\n");
+
+			for (final var hotspot : snapshot()) {
+				for (final var type : hotspot.byType().entrySet()) {
+					// Always use dots as the decimal separator, no matter the server's locale
+					writer.write(String.format(Locale.ROOT, "%s,%d,%d,%s,%.2f,%.2f\n",
+							hotspot.world(), hotspot.chunkX(), hotspot.chunkZ(), type.getKey(),
+							type.getValue()[0], type.getValue()[1]
+					));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Draws a heatmap of the claim lookups in a world. Every pixel is a chunk, or a square of chunks in
+	 * large worlds, and is colored from black (no lookups) through red to yellow (most lookups) on a
+	 * logarithmic scale. North is up.
+	 *
+	 * @param world The name of the world to draw.
+	 * @param file  The PNG file to write to.
+	 * @return <tt>true</tt> if the image was written and <tt>false</tt> if there are no counts for the world.
+	 * @throws IOException If writing the file fails.
+	 */
+	public boolean writeHeatmap(final @NotNull String world, final @NotNull File file) throws IOException {
+		final var chunks = worlds.get(world);
+		if (chunks == null || chunks.isEmpty()) return false;
+
+		int minX = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+		for (final var key : chunks.keySet()) {
+			final var x = (int) (key >> 32);
+			final var z = (int) key;
+			minX = Math.min(minX, x);
+			minZ = Math.min(minZ, z);
+			maxX = Math.max(maxX, x);
+			maxZ = Math.max(maxZ, z);
+		}
+
+		final var scale = (int) Math.max(1, ((long) Math.max(maxX - minX, maxZ - minZ) + MAX_IMAGE_SIZE) / MAX_IMAGE_SIZE);
+		final var width = (maxX - minX) / scale + 1;
+		final var height = (maxZ - minZ) / scale + 1;
+		final var values = new double[width * height];
+		var max = 0.0;
+
+		for (final var chunk : chunks.long2ObjectEntrySet()) {
+			final var x = ((int) (chunk.getLongKey() >> 32) - minX) / scale;
+			final var z = ((int) chunk.getLongKey() - minZ) / scale;
+			final var value = values[z * width + x] += chunk.getValue().lookups;
+			max = Math.max(max, value);
+		}
+
+		final var image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		final var logMax = Math.log1p(max);
+
+		for (int i = 0; i < values.length; i++) {
+			final var t = logMax == 0 ? 0 : Math.log1p(values[i]) / logMax;
+
+			// Black to red in the lower half, red to yellow in the upper half
+			final var red = (int) (Math.min(1, t * 2) * 255);
+			final var green = (int) (Math.max(0, t * 2 - 1) * 255);
+			image.setRGB(i % width, i / width, red << 16 | green << 8);
+		}
+
+		return ImageIO.write(image, "png", file);
+	}
+}
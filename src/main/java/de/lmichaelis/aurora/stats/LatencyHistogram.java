@@ -0,0 +1,88 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.stats;
+
+/**
+ * A fixed-size latency histogram with logarithmic buckets, each split into 8 linear sub-buckets (similar to
+ * HdrHistogram with one significant digit). Recorded values are kept with a relative error of at most 12.5%
+ * and recording is a couple of bit operations and an array increment.
+ */
+public final class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	// Values below this are counted exactly
+	private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+
+	private final long[] counts = new long[LINEAR_LIMIT + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS];
+	private long count = 0;
+	private long total = 0;
+	private long max = 0;
+
+	private static int indexOf(final long value) {
+		if (value < LINEAR_LIMIT) return (int) Math.max(0, value);
+
+		final var exponent = 63 - Long.numberOfLeadingZeros(value);
+		final var subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+	}
+
+	private static long upperBoundOf(final int index) {
+		if (index < LINEAR_LIMIT) return index;
+
+		final var exponent = (index - LINEAR_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+		final var subBucket = (index - LINEAR_LIMIT) % SUB_BUCKETS;
+		return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+
+	/**
+	 * Records a value.
+	 *
+	 * @param value The value to record, i.e. a duration in nanoseconds.
+	 */
+	public void record(final long value) {
+		counts[indexOf(value)]++;
+		count++;
+		total += value;
+		if (value > max) max = value;
+	}
+
+	/**
+	 * Gets the value below which the given fraction of all recorded values are.
+	 *
+	 * @param fraction The fraction of values, between 0 and 1.
+	 * @return The upper bound of the bucket containing the percentile, at most the maximum value recorded.
+	 */
+	public long getPercentile(final double fraction) {
+		if (count == 0) return 0;
+
+		final var target = Math.max(1, (long) Math.ceil(fraction * count));
+		var seen = 0L;
+
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= target) return Math.min(upperBoundOf(i), max);
+		}
+
+		return max;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * @return The mean of all recorded values or <tt>0</tt> if there are none.
+	 */
+	public double getMean() {
+		return count == 0 ? 0 : (double) total / count;
+	}
+}
@@ -0,0 +1,62 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.stats;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The statistics of a single event handler or database call.
+ */
+public final class Metric {
+	public enum Kind {
+		HANDLER,
+		DATABASE
+	}
+
+	public final @NotNull Kind kind;
+	public final @NotNull String name;
+
+	private LatencyHistogram latencies = new LatencyHistogram();
+	private long cancels = 0;
+	private long claimLookups = 0;
+
+	Metric(final @NotNull Kind kind, final @NotNull String name) {
+		this.kind = kind;
+		this.name = name;
+	}
+
+	/**
+	 * Records a call.
+	 *
+	 * @param nanos        The time the call took in nanoseconds.
+	 * @param cancelled    Whether the call cancelled an event.
+	 * @param claimLookups The number of claim lookups done during the call.
+	 */
+	public synchronized void record(final long nanos, final boolean cancelled, final long claimLookups) {
+		latencies.record(nanos);
+		if (cancelled) cancels++;
+		this.claimLookups += claimLookups;
+	}
+
+	/**
+	 * @return A copy of the latencies recorded so far.
+	 */
+	public synchronized @NotNull Snapshot snapshot() {
+		return new Snapshot(this, latencies.getCount(), cancels, claimLookups, latencies.getTotal(),
+				latencies.getMean(), latencies.getPercentile(0.5), latencies.getPercentile(0.9),
+				latencies.getPercentile(0.99), latencies.getMax());
+	}
+
+	synchronized void reset() {
+		latencies = new LatencyHistogram();
+		cancels = 0;
+		claimLookups = 0;
+	}
+
+	/**
+	 * The state of a metric at some point in time. All durations are in nanoseconds.
+	 */
+	public record Snapshot(@NotNull Metric metric, long calls, long cancels, long claimLookups, long total,
+						   double mean, long p50, long p90, long p99, long max) {
+	}
+}
@@ -0,0 +1,35 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.stats;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The kinds of statements run by calls to a DAO.
+ */
+public enum QueryKind {
+	SELECT,
+	INSERT,
+	UPDATE,
+	DELETE,
+	RAW,
+	OTHER;
+
+	/**
+	 * Determines the kind of statement run by a DAO method. Statement builders run nothing themselves, their
+	 * statements are counted once they are run through the DAO.
+	 *
+	 * @param method The name of the DAO method, i.e. <tt>queryForId</tt>.
+	 * @return The kind of statement the method runs.
+	 */
+	public static @NotNull QueryKind of(final @NotNull String method) {
+		if (method.endsWith("Builder")) return OTHER;
+		if (method.startsWith("queryRaw") || method.startsWith("executeRaw") || method.equals("updateRaw")) return RAW;
+		if (method.startsWith("query") || method.startsWith("countOf") || method.equals("idExists") ||
+				method.equals("refresh") || method.equals("iterator")) return SELECT;
+		if (method.startsWith("create")) return INSERT;
+		if (method.startsWith("update")) return UPDATE;
+		if (method.startsWith("delete")) return DELETE;
+		return OTHER;
+	}
+}
@@ -0,0 +1,364 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.stats;
+
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.stmt.DeleteBuilder;
+import com.j256.ormlite.stmt.QueryBuilder;
+import com.j256.ormlite.stmt.UpdateBuilder;
+import com.j256.ormlite.table.TableInfo;
+import de.lmichaelis.aurora.Aurora;
+import de.lmichaelis.aurora.jfr.DatabaseCallEvent;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects latency statistics of all event handlers and database calls.
+ */
+public final class Statistics {
+	private static final ConcurrentHashMap<String, Metric> METRICS = new ConcurrentHashMap<>();
+	private static final int MAX_LOGGED_STRING = 200;
+	private static final LongAdder[] QUERY_COUNTS = new LongAdder[QueryKind.values().length];
+	private static final AtomicInteger queriesThisTick = new AtomicInteger();
+	private static volatile int queriesLastTick = 0;
+	private static volatile int maxQueriesPerTick = 0;
+	private static volatile long slowQueryThreshold = Long.MAX_VALUE;
+
+	static {
+		for (int i = 0; i < QUERY_COUNTS.length; i++) {
+			QUERY_COUNTS[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * The number of claim lookups served so far. Only counted on the main thread.
+	 */
+	public static long claimLookups = 0;
+
+	// The position of the last claim lookup, used to place lookups and cancellations in hotspots
+	private static String lookupWorld = null;
+	private static int lookupX, lookupZ;
+
+	/**
+	 * The name of the event handler currently running, or <tt>null</tt> if none is. Only tracked for
+	 * handlers registered through {@link #registerEvents(Listener, Plugin)}.
+	 */
+	public static String currentHandler = null;
+
+	/**
+	 * The watchdog notified of every handler call, if any.
+	 */
+	public static @Nullable TickWatchdog watchdog = null;
+
+	/**
+	 * The per-chunk counters of claim lookups and cancellations, if enabled.
+	 */
+	public static @Nullable Hotspots hotspots = null;
+
+	/**
+	 * Counts a claim lookup. Only called on the main thread.
+	 *
+	 * @param world The name of the world the lookup is done in.
+	 * @param x     The x-coordinate of a block looked up.
+	 * @param z     The z-coordinate of a block looked up.
+	 */
+	public static void countLookup(final @NotNull String world, final int x, final int z) {
+		claimLookups++;
+		lookupWorld = world;
+		lookupX = x;
+		lookupZ = z;
+	}
+
+	private static @NotNull Metric get(final @NotNull Metric.Kind kind, final @NotNull String name) {
+		return METRICS.computeIfAbsent(kind + " " + name, n -> new Metric(kind, name));
+	}
+
+	/**
+	 * Registers all event handlers of the given listener like {@link org.bukkit.plugin.PluginManager#registerEvents(Listener, Plugin)}
+	 * does, but records the latency of every call.
+	 *
+	 * @param listener The listener to register.
+	 * @param plugin   The plugin to register the listener for.
+	 */
+	public static void registerEvents(final @NotNull Listener listener, final @NotNull Plugin plugin) {
+		final var pm = plugin.getServer().getPluginManager();
+
+		for (final var method : listener.getClass().getMethods()) {
+			final var handler = method.getAnnotation(EventHandler.class);
+			if (handler == null || method.getParameterCount() != 1) continue;
+			if (!Event.class.isAssignableFrom(method.getParameterTypes()[0])) continue;
+
+			final var type = method.getParameterTypes()[0].asSubclass(Event.class);
+			final var metric = get(Metric.Kind.HANDLER, listener.getClass().getSimpleName() + "#" + method.getName());
+			final var delegate = EventExecutor.create(method, type);
+
+			pm.registerEvent(type, listener, handler.priority(), (l, event) -> {
+				// Handler lists are shared with subclasses of the event, which might not be handled
+				if (!type.isInstance(event)) return;
+
+				final var wasCancelled = event instanceof final Cancellable c && c.isCancelled();
+				final var lookups = claimLookups;
+				final var previousHandler = currentHandler;
+				final var start = System.nanoTime();
+
+				final var watchdog = Statistics.watchdog;
+				if (watchdog != null) watchdog.enter(metric.name, event);
+
+				currentHandler = metric.name;
+				try {
+					delegate.execute(l, event);
+				} finally {
+					currentHandler = previousHandler;
+					if (watchdog != null) watchdog.exit();
+				}
+
+				final var elapsed = System.nanoTime() - start;
+				final var cancelled = !wasCancelled && event instanceof final Cancellable c && c.isCancelled();
+				metric.record(elapsed, cancelled, claimLookups - lookups);
+
+				// Events cancelled without a lookup can't be placed
+				final var hotspots = Statistics.hotspots;
+				if (hotspots != null && claimLookups != lookups) {
+					hotspots.record(lookupWorld, lookupX, lookupZ, event.getEventName(), claimLookups - lookups, cancelled);
+				}
+			}, plugin, handler.ignoreCancelled());
+		}
+	}
+
+	/**
+	 * Sets the time after which database calls are logged as slow.
+	 *
+	 * @param millis The threshold in milliseconds or <tt>0</tt> to not log slow calls.
+	 */
+	public static void setSlowQueryThreshold(final int millis) {
+		slowQueryThreshold = millis > 0 ? millis * 1_000_000L : Long.MAX_VALUE;
+	}
+
+	/**
+	 * Starts counting the database calls and handler time of the next tick. Called at the start of every tick.
+	 */
+	public static void onTick() {
+		final var watchdog = Statistics.watchdog;
+		if (watchdog != null) watchdog.onTick();
+
+		final var queries = queriesThisTick.getAndSet(0);
+		queriesLastTick = queries;
+		if (queries > maxQueriesPerTick) maxQueriesPerTick = queries;
+	}
+
+	/**
+	 * @return The number of database calls made during the current tick so far.
+	 */
+	public static int getQueriesThisTick() {
+		return queriesThisTick.get();
+	}
+
+	/**
+	 * @return The number of database calls made during the previous tick.
+	 */
+	public static int getQueriesLastTick() {
+		return queriesLastTick;
+	}
+
+	/**
+	 * @return The highest number of database calls made during a single tick since the last reset.
+	 */
+	public static int getMaxQueriesPerTick() {
+		return maxQueriesPerTick;
+	}
+
+	/**
+	 * @param kind The kind of statement.
+	 * @return The number of database calls of the given kind made since the last reset.
+	 */
+	public static long getQueryCount(final @NotNull QueryKind kind) {
+		return QUERY_COUNTS[kind.ordinal()].sum();
+	}
+
+	/**
+	 * Wraps the given DAO so that the latency of all calls to it is recorded. Statement builders created by
+	 * the wrapped DAO run their statements through it, so those are recorded as well.
+	 *
+	 * @param dao       The DAO to wrap.
+	 * @param tableInfo The DAO's table, used to create statement builders and to name the metrics.
+	 * @param <T>       The type of object stored by the DAO.
+	 * @param <ID>      The type of the object's id.
+	 * @return The wrapped DAO.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T, ID> @NotNull Dao<T, ID> timed(final @NotNull Dao<T, ID> dao, final @NotNull TableInfo<T, ID> tableInfo) {
+		final var table = tableInfo.getTableName().toLowerCase(Locale.ROOT);
+		final var databaseType = dao.getConnectionSource().getDatabaseType();
+
+		// The methods of all DAOs are the same, so their metrics are cached per DAO
+		final var metrics = new ConcurrentHashMap<Method, Metric>();
+
+		return (Dao<T, ID>) Proxy.newProxyInstance(Dao.class.getClassLoader(), new Class<?>[]{Dao.class}, (proxy, method, args) -> {
+			// Don't count toString() and friends
+			if (method.getDeclaringClass() == Object.class) {
+				try {
+					return method.invoke(dao, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}
+
+			// Builders don't run anything themselves. Bind them to this DAO instead of the wrapped one, so that
+			// the statements they prepare are run, and recorded, through it.
+			if (args == null) {
+				final var self = (Dao<T, ID>) proxy;
+				final Object builder = switch (method.getName()) {
+					case "queryBuilder" -> new QueryBuilder<>(databaseType, tableInfo, self);
+					case "updateBuilder" -> new UpdateBuilder<>(databaseType, tableInfo, self);
+					case "deleteBuilder" -> new DeleteBuilder<>(databaseType, tableInfo, self);
+					default -> null;
+				};
+
+				if (builder != null) return builder;
+			}
+
+			final var metric = metrics.computeIfAbsent(method, m -> get(Metric.Kind.DATABASE, table + "." + m.getName()));
+			final var event = new DatabaseCallEvent();
+			final var start = System.nanoTime();
+			event.begin();
+
+			Object result = null;
+			var succeeded = false;
+
+			try {
+				result = method.invoke(dao, args);
+				succeeded = true;
+				return result;
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			} finally {
+				final var elapsed = System.nanoTime() - start;
+				metric.record(elapsed, false, 0);
+				QUERY_COUNTS[QueryKind.of(method.getName()).ordinal()].increment();
+				queriesThisTick.incrementAndGet();
+
+				if (elapsed > slowQueryThreshold) {
+					Aurora.logger.warning("Slow database call %s.%s(%s) took %.1f ms in %s".formatted(
+							table, method.getName(), describe(args), elapsed / 1e6, getCaller()
+					));
+				}
+
+				if (event.shouldCommit()) {
+					event.table = table;
+					event.kind = method.getName();
+					event.rows = result instanceof final List<?> list ? list.size() : result instanceof final Integer count ? count : -1;
+					event.succeeded = succeeded;
+					event.commit();
+				}
+			}
+		});
+	}
+
+	private static @NotNull String describe(final Object @Nullable [] args) {
+		if (args == null) return "";
+
+		final var joiner = new StringJoiner(", ");
+		for (final var arg : args) {
+			// Only print values small enough to be useful, i.e. ids and raw statements
+			if (arg == null || arg instanceof Number || arg instanceof UUID || arg instanceof Boolean) {
+				joiner.add(String.valueOf(arg));
+			} else if (arg instanceof final String string) {
+				joiner.add('"' + (string.length() > MAX_LOGGED_STRING ? string.substring(0, MAX_LOGGED_STRING) + "..." : string) + '"');
+			} else {
+				joiner.add(arg.getClass().getSimpleName());
+			}
+		}
+
+		return joiner.toString();
+	}
+
+	private static @NotNull String getCaller() {
+		if (currentHandler != null) return currentHandler;
+
+		// Without handler statistics, find the closest caller in Aurora instead
+		return StackWalker.getInstance().walk(frames -> frames
+				.filter(f -> f.getClassName().startsWith("de.lmichaelis.aurora.") &&
+						!f.getClassName().startsWith(Statistics.class.getPackageName()))
+				.findFirst()
+				.map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1) + "#" + f.getMethodName())
+				.orElse("unknown"));
+	}
+
+	/**
+	 * @return Snapshots of all metrics, the ones which took the most time in total first.
+	 */
+	public static @NotNull List<Metric.Snapshot> snapshot() {
+		final var snapshots = new ArrayList<Metric.Snapshot>(METRICS.size());
+
+		for (final var metric : METRICS.values()) {
+			final var snapshot = metric.snapshot();
+			if (snapshot.calls() > 0) snapshots.add(snapshot);
+		}
+
+		snapshots.sort(Comparator.comparingLong(Metric.Snapshot::total).reversed());
+		return snapshots;
+	}
+
+	/**
+	 * Clears all recorded statistics.
+	 */
+	public static void reset() {
+		for (final var metric : METRICS.values()) {
+			metric.reset();
+		}
+
+		for (final var count : QUERY_COUNTS) {
+			count.reset();
+		}
+
+		maxQueriesPerTick = 0;
+	}
+
+	/**
+	 * Appends the current statistics to a CSV file, one row per metric.
+	 *
+	 * @param file The file to append to. A header is written if it doesn't exist yet.
+	 * @throws IOException If writing the file fails.
+	 */
+	public static void writeCsv(final @NotNull File file) throws IOException {
+		final var exists = file.exists();
+		final var time = Instant.now();
+
+		try (final var writer = new FileWriter(file, true)) {
+			if (!exists) {
+				writer.write("time,kind,name,calls,cancels,claim_lookups,total_ms,mean_us,p50_us,p90_us,p99_us,max_us\n");
+			}
+
+			for (final var s : snapshot()) {
+				// Always use dots as the decimal separator, no matter the server's locale
+				writer.write(String.format(Locale.ROOT, "%s,%s,%s,%d,%d,%d,%.3f,%.2f,%.2f,%.2f,%.2f,%.2f\n",
+						time, s.metric().kind, s.metric().name, s.calls(), s.cancels(), s.claimLookups(),
+						s.total() / 1e6, s.mean() / 1e3, s.p50() / 1e3, s.p90() / 1e3, s.p99() / 1e3, s.max() / 1e3
+				));
+			}
+		}
+	}
+}
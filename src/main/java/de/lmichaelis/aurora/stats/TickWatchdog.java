@@ -0,0 +1,235 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.stats;
+
+import de.lmichaelis.aurora.Aurora;
+import org.bukkit.Location;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.BlockEvent;
+import org.bukkit.event.entity.EntityEvent;
+import org.bukkit.event.hanging.HangingEvent;
+import org.bukkit.event.player.PlayerEvent;
+import org.bukkit.event.vehicle.VehicleEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Watches the time spent in Aurora's event handlers during every tick. Once a tick's budget is used up, a
+ * background thread samples the server thread's stack until the running handler returns, and appends the
+ * samples together with the event being handled to a log file.
+ * <p>
+ * Only handlers registered through {@link Statistics#registerEvents} are watched.
+ */
+public final class TickWatchdog {
+	private static final int MAX_SAMPLES = 200;
+	private static final int MAX_FRAMES = 48;
+
+	private final Thread serverThread;
+	private final Thread samplerThread;
+	private final File file;
+	private final long budget;
+	private final long interval;
+	private final ConcurrentLinkedQueue<Spike> finished = new ConcurrentLinkedQueue<>();
+	private volatile boolean running = true;
+
+	// Written by the server thread only
+	private int depth = 0;
+	private long tick = 0;
+	private @Nullable Event event = null;
+	private volatile long tickNanos = 0;
+	private volatile long handlerStart = 0;
+	private volatile @Nullable String handler = null;
+
+	// Guarded by this
+	private @Nullable Spike spike = null;
+
+	/**
+	 * A handler call which exceeded the tick's budget, together with the stacks sampled during it.
+	 */
+	private static final class Spike {
+		final long tick;
+		final String handler;
+		final Instant time = Instant.now();
+		final HashMap<List<StackTraceElement>, Integer> stacks = new HashMap<>();
+		int samples = 0;
+		String event;
+		long elapsed;
+		long tickNanos;
+
+		Spike(final long tick, final String handler) {
+			this.tick = tick;
+			this.handler = handler;
+		}
+	}
+
+	/**
+	 * Starts watching the given thread.
+	 *
+	 * @param serverThread   The server's main thread.
+	 * @param file           The log file to append spikes to.
+	 * @param budgetMillis   The time Aurora may spend in event handlers per tick in milliseconds.
+	 * @param intervalMillis The time between two stack samples in milliseconds.
+	 */
+	public TickWatchdog(final @NotNull Thread serverThread, final @NotNull File file,
+						final int budgetMillis, final int intervalMillis) {
+		this.serverThread = serverThread;
+		this.file = file;
+		this.budget = budgetMillis * 1_000_000L;
+		this.interval = Math.max(1, intervalMillis);
+
+		this.samplerThread = new Thread(this::sample, "Aurora Watchdog");
+		this.samplerThread.setDaemon(true);
+		this.samplerThread.start();
+	}
+
+	/**
+	 * Stops the sampler thread and writes all remaining spikes.
+	 */
+	public void stop() {
+		running = false;
+		samplerThread.interrupt();
+
+		try {
+			samplerThread.join(1000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Starts a new tick. Called at the start of every tick.
+	 */
+	void onTick() {
+		tick++;
+		tickNanos = 0;
+	}
+
+	/**
+	 * Called before an event handler runs.
+	 *
+	 * @param name  The name of the handler.
+	 * @param event The event being handled.
+	 */
+	void enter(final @NotNull String name, final @NotNull Event event) {
+		if (Thread.currentThread() != serverThread || depth++ > 0) return;
+
+		this.event = event;
+		this.handler = name;
+		this.handlerStart = System.nanoTime();
+	}
+
+	/**
+	 * Called after an event handler returned.
+	 */
+	void exit() {
+		if (Thread.currentThread() != serverThread || --depth > 0) return;
+
+		final var elapsed = System.nanoTime() - handlerStart;
+		final Spike done;
+
+		synchronized (this) {
+			handlerStart = 0;
+			done = spike;
+			spike = null;
+		}
+
+		tickNanos += elapsed;
+
+		if (done != null) {
+			// Describe the event here, since it is not safe to do so on the sampler thread
+			done.event = describe(Objects.requireNonNull(event));
+			done.elapsed = elapsed;
+			done.tickNanos = tickNanos;
+			finished.add(done);
+		}
+
+		event = null;
+	}
+
+	private void sample() {
+		while (running) {
+			try {
+				Thread.sleep(interval);
+			} catch (InterruptedException e) {
+				break;
+			}
+
+			final var start = handlerStart;
+			if (start != 0 && tickNanos + System.nanoTime() - start > budget) {
+				final var stack = serverThread.getStackTrace();
+
+				synchronized (this) {
+					// The handler might have returned while the stack was sampled
+					if (handlerStart == start) {
+						if (spike == null) spike = new Spike(tick, Objects.requireNonNull(handler));
+						if (spike.samples++ < MAX_SAMPLES) {
+							final var frames = Arrays.asList(stack).subList(0, Math.min(MAX_FRAMES, stack.length));
+							spike.stacks.merge(frames, 1, Integer::sum);
+						}
+					}
+				}
+			}
+
+			write();
+		}
+
+		write();
+	}
+
+	private void write() {
+		if (finished.isEmpty()) return;
+
+		try (final var writer = new FileWriter(file, true)) {
+			Spike spike;
+			while ((spike = finished.poll()) != null) {
+				writer.write(String.format(Locale.ROOT,
+						"%s tick %d: %s took %.1f ms handling %s (%.1f ms in Aurora this tick, budget %.1f ms)%n",
+						spike.time, spike.tick, spike.handler, spike.elapsed / 1e6, spike.event,
+						spike.tickNanos / 1e6, budget / 1e6
+				));
+
+				final var stacks = new ArrayList<>(spike.stacks.entrySet());
+				stacks.sort((a, b) -> b.getValue() - a.getValue());
+
+				for (final var stack : stacks) {
+					writer.write("  %d of %d samples:%n".formatted(stack.getValue(), spike.samples));
+
+					for (final var frame : stack.getKey()) {
+						writer.write("    at %s%n".formatted(frame));
+					}
+				}
+
+				writer.write(System.lineSeparator());
+			}
+		} catch (IOException e) {
+			Aurora.logger.warning("Failed to write the watchdog log: %s".formatted(e));
+		}
+	}
+
+	private static @NotNull String describe(final @NotNull Event event) {
+		final @Nullable Location location;
+		if (event instanceof final BlockEvent e) location = e.getBlock().getLocation();
+		else if (event instanceof final EntityEvent e) location = e.getEntity().getLocation();
+		else if (event instanceof final PlayerEvent e) location = e.getPlayer().getLocation();
+		else if (event instanceof final HangingEvent e) location = e.getEntity().getLocation();
+		else if (event instanceof final VehicleEvent e) location = e.getVehicle().getLocation();
+		else location = null;
+
+		if (location == null || location.getWorld() == null) return event.getEventName();
+
+		return "%s at %s (%d, %d, %d)".formatted(event.getEventName(), location.getWorld().getName(),
+				location.getBlockX(), location.getBlockY(), location.getBlockZ());
+	}
+}
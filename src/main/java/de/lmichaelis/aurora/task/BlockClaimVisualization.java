@@ -0,0 +1,130 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.task;
+
+import de.lmichaelis.aurora.Aurora;
+import de.lmichaelis.aurora.AuroraUtil;
+import de.lmichaelis.aurora.model.User;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Objects;
+
+/**
+ * Marks the corners and edges of a claim with client-side fake blocks on the surface, similar to
+ * GriefPrevention. The markers are placed around the player and are moved along once the player
+ * walks away from them. They are reverted to the real blocks when the visualization is removed.
+ */
+public class BlockClaimVisualization extends ClaimVisualization {
+	private static final int MARKER_SPACING = 10;
+	private static final Location SCRATCH = new Location(null, 0, 0, 0);
+
+	private final @NotNull VisualizationStyle style;
+	private final @NotNull FakeBlockTracker tracker;
+
+	private long[] sent = new long[16];
+	private int sentCount = 0;
+	private boolean shown = false;
+	private int anchorX, anchorZ;
+
+	public BlockClaimVisualization(final @NotNull Player player, final @NotNull String world,
+								   final int minX, final int minY, final int minZ,
+								   final int maxX, final int maxY, final int maxZ,
+								   final @NotNull VisualizationStyle style) {
+		super(player, world, minX, minY, minZ, maxX, maxY, maxZ);
+		this.style = style;
+		this.tracker = Objects.requireNonNull(User.fromMetadata(player)).fakeBlocks;
+	}
+
+	@Override
+	int render() {
+		if (!player.getWorld().getName().equals(world)) {
+			// The client has already discarded the fake blocks along with the old world
+			tracker.clear();
+			sentCount = 0;
+			cancel();
+			return 0;
+		}
+
+		final var location = player.getLocation(SCRATCH);
+		final int px = location.getBlockX(), pz = location.getBlockZ();
+		final var radius = Aurora.instance.config.visualizationRadius;
+
+		// Only move the markers once the player has walked away from them
+		if (shown && Math.abs(px - anchorX) < radius / 4 && Math.abs(pz - anchorZ) < radius / 4) return 0;
+
+		revert();
+
+		final var world = player.getWorld();
+		final var changes = new HashMap<Location, BlockData>();
+		final var corner = style.getCornerBlock();
+		final var edge = style.getEdgeBlock();
+
+		addMarker(world, minX, minZ, px, pz, corner, changes);
+		addMarker(world, maxX, minZ, px, pz, corner, changes);
+		addMarker(world, minX, maxZ, px, pz, corner, changes);
+		addMarker(world, maxX, maxZ, px, pz, corner, changes);
+
+		// Only walk the parts of the edges which are within the radius
+		final var startX = minX + MARKER_SPACING * Math.max(1, (px - radius - minX) / MARKER_SPACING);
+		for (int x = startX; x < maxX && x <= px + radius; x += MARKER_SPACING) {
+			addMarker(world, x, minZ, px, pz, edge, changes);
+			addMarker(world, x, maxZ, px, pz, edge, changes);
+		}
+
+		final var startZ = minZ + MARKER_SPACING * Math.max(1, (pz - radius - minZ) / MARKER_SPACING);
+		for (int z = startZ; z < maxZ && z <= pz + radius; z += MARKER_SPACING) {
+			addMarker(world, minX, z, px, pz, edge, changes);
+			addMarker(world, maxX, z, px, pz, edge, changes);
+		}
+
+		if (!changes.isEmpty()) player.sendMultiBlockChange(changes, true);
+
+		shown = true;
+		anchorX = px;
+		anchorZ = pz;
+		return changes.size();
+	}
+
+	private void addMarker(final @NotNull World world, final int x, final int z, final int px, final int pz,
+						   final @NotNull BlockData marker, final @NotNull HashMap<Location, BlockData> changes) {
+		final var radius = Aurora.instance.config.visualizationRadius;
+		final long dx = x - px, dz = z - pz;
+
+		if (dx * dx + dz * dz > (long) radius * radius) return;
+		if (!world.isChunkLoaded(x >> 4, z >> 4)) return;
+
+		// Place the marker on the surface, but never outside the claim's vertical extent
+		final var y = Math.max(minY, Math.min(maxY, world.getHighestBlockYAt(x, z)));
+		final var key = AuroraUtil.blockKey(x, y, z);
+		final var location = new Location(world, x, y, z);
+
+		if (sentCount == sent.length) sent = Arrays.copyOf(sent, sent.length * 2);
+		sent[sentCount++] = key;
+
+		tracker.add(key, location);
+		changes.put(location, marker);
+	}
+
+	private void revert() {
+		if (sentCount == 0) return;
+
+		final var reverted = new HashMap<Location, BlockData>();
+		tracker.release(sent, sentCount, reverted);
+		sentCount = 0;
+
+		if (!reverted.isEmpty() && player.isOnline() && player.getWorld().getName().equals(world)) {
+			player.sendMultiBlockChange(reverted, true);
+		}
+	}
+
+	@Override
+	void remove() {
+		revert();
+	}
+}
@@ -0,0 +1,102 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.task;
+
+import de.lmichaelis.aurora.Aurora;
+import de.lmichaelis.aurora.model.Claim;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The boundaries of a claim shown to a single player. Visualizations are rendered and expired by the
+ * {@link ClaimVisualizationTask}.
+ */
+public abstract class ClaimVisualization {
+	protected final @NotNull Player player;
+	protected final @NotNull String world;
+	protected final int minX, minY, minZ, maxX, maxY, maxZ;
+	private boolean cancelled = false;
+
+	long expiresAt;
+	long nextRenderAt;
+
+	protected ClaimVisualization(final @NotNull Player player, final @NotNull String world,
+								 final int minX, final int minY, final int minZ,
+								 final int maxX, final int maxY, final int maxZ) {
+		this.player = player;
+		this.world = world;
+		this.minX = minX;
+		this.minY = minY;
+		this.minZ = minZ;
+		this.maxX = maxX;
+		this.maxY = maxY;
+		this.maxZ = maxZ;
+	}
+
+	/**
+	 * Creates a visualization of the given claim using the configured visualization mode.
+	 *
+	 * @param claim  The claim to visualize.
+	 * @param player The player to show the visualization to.
+	 * @param style  The style to visualize the claim in.
+	 * @return A new visualization.
+	 */
+	public static @NotNull ClaimVisualization create(final @NotNull Claim claim, final @NotNull Player player,
+													 final @NotNull VisualizationStyle style) {
+		return create(player, claim.world, claim.minX, claim.minY, claim.minZ, claim.maxX, claim.maxY, claim.maxZ, style);
+	}
+
+	/**
+	 * Creates a visualization of an arbitrary box using the configured visualization mode.
+	 *
+	 * @param player The player to show the visualization to.
+	 * @param world  The name of the world the box is in.
+	 * @param minX   The minimum x-coordinate of the box.
+	 * @param minY   The minimum y-coordinate of the box.
+	 * @param minZ   The minimum z-coordinate of the box.
+	 * @param maxX   The maximum x-coordinate of the box.
+	 * @param maxY   The maximum y-coordinate of the box.
+	 * @param maxZ   The maximum z-coordinate of the box.
+	 * @param style  The style to visualize the box in.
+	 * @return A new visualization.
+	 */
+	public static @NotNull ClaimVisualization create(final @NotNull Player player, final @NotNull String world,
+													 final int minX, final int minY, final int minZ,
+													 final int maxX, final int maxY, final int maxZ,
+													 final @NotNull VisualizationStyle style) {
+		return switch (Aurora.instance.config.visualizationMode) {
+			case PARTICLES -> new ParticleClaimVisualization(player, world, minX, minY, minZ, maxX, maxY, maxZ, style);
+			case BLOCKS -> new BlockClaimVisualization(player, world, minX, minY, minZ, maxX, maxY, maxZ, style);
+		};
+	}
+
+	/**
+	 * Draws the visualization once.
+	 *
+	 * @return The number of particles or blocks sent to the player.
+	 */
+	abstract int render();
+
+	/**
+	 * Called once the visualization has been dropped by the {@link ClaimVisualizationTask}.
+	 */
+	void remove() {
+	}
+
+	/**
+	 * Checks whether the visualization should be removed.
+	 *
+	 * @param tick The current tick of the {@link ClaimVisualizationTask}.
+	 * @return <tt>true</tt> if the visualization has expired or was cancelled and <tt>false</tt> if not.
+	 */
+	boolean isExpired(final long tick) {
+		return cancelled || tick >= expiresAt || !player.isOnline();
+	}
+
+	/**
+	 * Stops showing the visualization. It is removed the next time the {@link ClaimVisualizationTask} runs.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+}
@@ -3,86 +3,92 @@
 package de.lmichaelis.aurora.task;
 
 import de.lmichaelis.aurora.Aurora;
-import de.lmichaelis.aurora.model.Claim;
-import org.bukkit.Bukkit;
-import org.bukkit.Color;
-import org.bukkit.Location;
-import org.bukkit.Particle;
-import org.bukkit.entity.Player;
+import de.lmichaelis.aurora.jfr.VisualizationRenderEvent;
 import org.jetbrains.annotations.NotNull;
 
-public class ClaimVisualizationTask implements Runnable {
-	private static final Particle PARTICLE = Particle.REDSTONE.builder().force(false).particle();
-	private final @NotNull Player player;
-
-	private final Particle.DustOptions options;
-	private final Claim claim;
-	private int id;
+import java.util.ArrayList;
 
-	public ClaimVisualizationTask(final @NotNull Claim claim, final @NotNull Player player, Color color) {
-		this.player = player;
-		this.claim = claim;
-		this.options = new Particle.DustOptions(color, 3);
+/**
+ * A task which renders all active claim visualizations. It runs every tick and draws the visualizations
+ * which are due round-robin until the configured render budget for the tick is used up. Expired
+ * visualizations are removed without any further scheduling.
+ */
+public class ClaimVisualizationTask implements Runnable {
+	/**
+	 * The number of ticks after which a visualization is drawn again.
+	 */
+	public static final int REFRESH_INTERVAL = 20;
+
+	private final ArrayList<ClaimVisualization> active = new ArrayList<>();
+	private int cursor = 0;
+	private long tick = 0;
+
+	/**
+	 * Starts rendering the given visualization.
+	 *
+	 * @param visualization    The visualization to render.
+	 * @param cancelAfterTicks The number of ticks after which the visualization expires.
+	 */
+	public void add(final @NotNull ClaimVisualization visualization, final int cancelAfterTicks) {
+		visualization.expiresAt = tick + cancelAfterTicks;
+		visualization.nextRenderAt = tick;
+		active.add(visualization);
 	}
 
-	public static @NotNull ClaimVisualizationTask spawn(final @NotNull Claim claim, final @NotNull Player player, Color color, final int cancelAfterTicks) {
-		final var task = new ClaimVisualizationTask(claim, player, color);
-		task.id = Bukkit.getScheduler().scheduleSyncRepeatingTask(Aurora.instance, task, 0, 20);
-		Bukkit.getScheduler().scheduleSyncDelayedTask(Aurora.instance, task::cancel, cancelAfterTicks);
-		return task;
+	/**
+	 * Postpones the expiry of the given visualization.
+	 *
+	 * @param visualization    The visualization to keep alive.
+	 * @param cancelAfterTicks The number of ticks from now after which the visualization expires.
+	 */
+	public void extend(final @NotNull ClaimVisualization visualization, final int cancelAfterTicks) {
+		visualization.expiresAt = tick + cancelAfterTicks;
 	}
 
+	@Override
+	public void run() {
+		tick++;
 
-	private void drawLine(double x1, double y1, double z1, double x2, double y2, double z2) {
-		double distanceX = Math.abs(x2 - x1), distanceY = Math.abs(y2 - y1), distanceZ = Math.abs(z2 - z1);
-		double stepCount = (Math.max(Math.max(distanceX, distanceY), distanceZ)) / 2;
-		double stepSizeX = distanceX / stepCount, stepSizeY = distanceY / stepCount, stepSizeZ = distanceZ / stepCount;
-
-		final var location = new Location(player.getWorld(), x1, y1, z1);
+		// Drop all expired visualizations, keeping the cursor on the same entry
+		var kept = 0;
+		for (int i = 0; i < active.size(); i++) {
+			final var visualization = active.get(i);
 
-		for (int step = 0; step < stepCount + 1; step++) {
-			if (location.distanceSquared(player.getLocation()) <= 100 * 100) {
-				player.spawnParticle(PARTICLE, location, 1, 0, 0, 0, options);
+			if (visualization.isExpired(tick)) {
+				if (i < cursor) cursor--;
+				visualization.remove();
+				continue;
 			}
 
-			location.add(stepSizeX, stepSizeY, stepSizeZ);
+			active.set(kept++, visualization);
 		}
-	}
 
-	private void drawVerticalLine(double x, double z, double y1, double y2) {
-		drawLine(x, y1, z, x, y2, z);
-	}
+		active.subList(kept, active.size()).clear();
+		if (active.isEmpty()) return;
 
-	private void drawHorizontalLineX(double x, double y, double z1, double z2) {
-		drawLine(x, y, z1, x, y, z2);
-	}
+		var budget = Aurora.instance.config.visualizationBudget;
+		for (int i = 0; i < active.size() && budget > 0; i++) {
+			if (cursor >= active.size()) cursor = 0;
 
-	private void drawHorizontalLineZ(double y, double z, double x1, double x2) {
-		drawLine(x1, y, z, x2, y, z);
-	}
+			final var visualization = active.get(cursor++);
+			if (visualization.nextRenderAt > tick) continue;
 
-	@Override
-	public void run() {
-		drawVerticalLine(claim.minX, claim.minZ, claim.minY, claim.maxY);
-		drawVerticalLine(claim.maxX + 1, claim.minZ, claim.minY, claim.maxY);
-		drawVerticalLine(claim.minX, claim.maxZ + 1, claim.minY, claim.maxY);
-		drawVerticalLine(claim.maxX + 1, claim.maxZ + 1, claim.minY, claim.maxY);
-
-		drawHorizontalLineX(claim.minX, claim.minY, claim.minZ, claim.maxZ + 1);
-		drawHorizontalLineX(claim.maxX + 1, claim.minY, claim.minZ, claim.maxZ + 1);
-		drawHorizontalLineX(claim.minX, claim.maxY + 1, claim.minZ, claim.maxZ + 1);
-		drawHorizontalLineX(claim.maxX + 1, claim.maxY + 1, claim.minZ, claim.maxZ + 1);
-
-		drawHorizontalLineZ(claim.minY, claim.minZ, claim.minX, claim.maxX);
-		drawHorizontalLineZ(claim.minY, claim.maxZ + 1, claim.minX, claim.maxX);
-		drawHorizontalLineZ(claim.maxY + 1, claim.minZ, claim.minX, claim.maxX);
-		drawHorizontalLineZ(claim.maxY + 1, claim.maxZ + 1, claim.minX, claim.maxX);
-	}
+			final var event = new VisualizationRenderEvent();
+			event.begin();
+
+			final var cost = visualization.render();
+			budget -= cost;
+
+			if (event.shouldCommit()) {
+				event.player = visualization.player.getName();
+				event.mode = visualization.getClass().getSimpleName();
+				event.world = visualization.world;
+				event.size = (long) (visualization.maxX - visualization.minX + 1) * (visualization.maxZ - visualization.minZ + 1);
+				event.cost = cost;
+				event.commit();
+			}
 
-	public void cancel() {
-		if (id != -1) {
-			Bukkit.getScheduler().cancelTask(id);
-			id = -1;
+			visualization.nextRenderAt = tick + REFRESH_INTERVAL;
 		}
 	}
 }
@@ -0,0 +1,75 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.task;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.bukkit.Location;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+
+/**
+ * Keeps track of the fake blocks sent to a single player. Blocks sent by multiple visualizations are only
+ * reverted once the last of them releases it. The real block data is read when a block is reverted, since
+ * the real block may have changed while the fake one was shown.
+ */
+public final class FakeBlockTracker {
+	private static final class FakeBlock {
+		private final Location location;
+		private int references = 0;
+
+		private FakeBlock(final @NotNull Location location) {
+			this.location = location;
+		}
+	}
+
+	private final Long2ObjectOpenHashMap<FakeBlock> blocks = new Long2ObjectOpenHashMap<>();
+
+	/**
+	 * Records a fake block sent to the player.
+	 *
+	 * @param key      The block key of the fake block's position.
+	 * @param location The position of the fake block.
+	 */
+	public void add(final long key, final @NotNull Location location) {
+		var block = blocks.get(key);
+
+		if (block == null) {
+			block = new FakeBlock(location);
+			blocks.put(key, block);
+		}
+
+		block.references++;
+	}
+
+	/**
+	 * Releases the given fake blocks and collects the current real block data of those which are no longer
+	 * shown by any visualization. Blocks in unloaded chunks are skipped, because the client has already
+	 * discarded them together with the chunk.
+	 *
+	 * @param keys     The block keys of the fake blocks to release.
+	 * @param count    The number of keys to release.
+	 * @param reverted The map to put the real block data of all blocks to revert into.
+	 */
+	public void release(final long @NotNull [] keys, final int count, final @NotNull Map<Location, BlockData> reverted) {
+		for (int i = 0; i < count; i++) {
+			final var block = blocks.get(keys[i]);
+			if (block == null || --block.references > 0) continue;
+
+			blocks.remove(keys[i]);
+
+			final var location = block.location;
+			if (!location.getWorld().isChunkLoaded(location.getBlockX() >> 4, location.getBlockZ() >> 4)) continue;
+
+			reverted.put(location, location.getBlock().getBlockData());
+		}
+	}
+
+	/**
+	 * Forgets all fake blocks without reverting them, for example because the player has left the world.
+	 */
+	public void clear() {
+		blocks.clear();
+	}
+}
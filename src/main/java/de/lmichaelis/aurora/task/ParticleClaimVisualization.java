@@ -0,0 +1,141 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.task;
+
+import de.lmichaelis.aurora.Aurora;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Outlines a claim with particles.
+ */
+public class ParticleClaimVisualization extends ClaimVisualization {
+	private static final Particle PARTICLE = Particle.REDSTONE.builder().force(false).particle();
+	private static final double STEP = 2;
+	private static final Location SCRATCH = new Location(null, 0, 0, 0);
+
+	// Particle positions of the visualization currently being rendered as (x, y, z) triples
+	private static double[] buffer = new double[3 * 256];
+	private static int bufferSize = 0;
+
+	private final Particle.DustOptions options;
+
+	public ParticleClaimVisualization(final @NotNull Player player, final @NotNull String world,
+									  final int minX, final int minY, final int minZ,
+									  final int maxX, final int maxY, final int maxZ,
+									  final @NotNull VisualizationStyle style) {
+		super(player, world, minX, minY, minZ, maxX, maxY, maxZ);
+		this.options = new Particle.DustOptions(style.color, 3);
+	}
+
+	/**
+	 * Clips an axis-aligned line to the visible range and appends its particle positions to the buffer. The
+	 * line runs along one axis from <tt>from</tt> to <tt>to</tt>; its position on the other two axes is given
+	 * relative to the player as <tt>distanceSquared</tt>.
+	 *
+	 * @param axis            The axis the line runs along (0 = x, 1 = y, 2 = z).
+	 * @param a               The first fixed coordinate of the line (y for x-lines, x otherwise).
+	 * @param b               The second fixed coordinate of the line (z for x- and y-lines, y for z-lines).
+	 * @param from            The start of the line along its axis.
+	 * @param to              The end of the line along its axis.
+	 * @param center          The player's coordinate along the line's axis.
+	 * @param distanceSquared The squared distance between the line and the player on the other two axes.
+	 */
+	private void clipLine(final int axis, final double a, final double b, final double from, final double to,
+						  final double center, final double distanceSquared) {
+		final var radius = Aurora.instance.config.visualizationRadius;
+		if (distanceSquared > (double) radius * radius) return;
+
+		final var halfLength = Math.sqrt((double) radius * radius - distanceSquared);
+		var clipFrom = Math.max(from, center - halfLength);
+		var clipTo = Math.min(to, center + halfLength);
+
+		if (axis == 1) {
+			final var range = Aurora.instance.config.visualizationVerticalRange;
+			clipFrom = Math.max(clipFrom, center - range);
+			clipTo = Math.min(clipTo, center + range);
+		}
+
+		if (clipFrom > clipTo) return;
+
+		// Keep particles on a fixed grid along the line so that they don't jitter when the player moves
+		var position = from + Math.ceil((clipFrom - from) / STEP) * STEP;
+		for (; position <= clipTo; position += STEP) {
+			switch (axis) {
+				case 0 -> push(position, a, b);
+				case 1 -> push(a, position, b);
+				default -> push(a, b, position);
+			}
+		}
+
+		// Always mark the end of the line if it is visible
+		if (to <= clipTo && position - STEP < to) {
+			switch (axis) {
+				case 0 -> push(to, a, b);
+				case 1 -> push(a, to, b);
+				default -> push(a, b, to);
+			}
+		}
+	}
+
+	private static void push(final double x, final double y, final double z) {
+		if (bufferSize + 3 > buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+
+		buffer[bufferSize++] = x;
+		buffer[bufferSize++] = y;
+		buffer[bufferSize++] = z;
+	}
+
+	/**
+	 * Draws the outline once. Only the parts of the outline within the configured radius and vertical range
+	 * around the player are drawn.
+	 *
+	 * @return The number of particles spawned.
+	 */
+	@Override
+	int render() {
+		if (!player.getWorld().getName().equals(world)) return 0;
+
+		final var location = player.getLocation(SCRATCH);
+		final double px = location.getX(), py = location.getY(), pz = location.getZ();
+		final double x1 = minX, x2 = maxX + 1, y1 = minY, y2 = maxY + 1, z1 = minZ, z2 = maxZ + 1;
+		final var range = Aurora.instance.config.visualizationVerticalRange;
+
+		bufferSize = 0;
+
+		// Vertical edges
+		clipLine(1, x1, z1, y1, maxY, py, square(x1 - px) + square(z1 - pz));
+		clipLine(1, x2, z1, y1, maxY, py, square(x2 - px) + square(z1 - pz));
+		clipLine(1, x1, z2, y1, maxY, py, square(x1 - px) + square(z2 - pz));
+		clipLine(1, x2, z2, y1, maxY, py, square(x2 - px) + square(z2 - pz));
+
+		// Horizontal edges at the bottom and top of the claim, if they are within the vertical range
+		if (Math.abs(y1 - py) <= range) clipHorizontalOutline(y1, px, py, pz);
+		if (Math.abs(y2 - py) <= range) clipHorizontalOutline(y2, px, py, pz);
+
+		// Note: The 1.18 protocol sends every particle position in a packet of its own and the API has no way of
+		//       sending several packets at once, so the particles are spawned one by one from the buffer.
+		for (int i = 0; i < bufferSize; i += 3) {
+			player.spawnParticle(PARTICLE, buffer[i], buffer[i + 1], buffer[i + 2], 1, 0, 0, 0, options);
+		}
+
+		return bufferSize / 3;
+	}
+
+	private void clipHorizontalOutline(final double y, final double px, final double py, final double pz) {
+		final double x1 = minX, x2 = maxX + 1, z1 = minZ, z2 = maxZ + 1;
+
+		clipLine(2, x1, y, z1, z2, pz, square(x1 - px) + square(y - py));
+		clipLine(2, x2, y, z1, z2, pz, square(x2 - px) + square(y - py));
+		clipLine(0, y, z1, x1, maxX, px, square(y - py) + square(z1 - pz));
+		clipLine(0, y, z2, x1, maxX, px, square(y - py) + square(z2 - pz));
+	}
+
+	private static double square(final double value) {
+		return value * value;
+	}
+}
@@ -0,0 +1,122 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.task;
+
+import de.lmichaelis.aurora.Aurora;
+import de.lmichaelis.aurora.AuroraUtil;
+import de.lmichaelis.aurora.interactions.InteractionHandler;
+import de.lmichaelis.aurora.model.Claim;
+import de.lmichaelis.aurora.model.User;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.bukkit.Bukkit;
+import org.bukkit.FluidCollisionMode;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.UUID;
+
+/**
+ * A task which previews the outcome of claim creations and resizes while the player is choosing the second
+ * corner. It draws the tentative selection and the claims it conflicts with, and shows the cost of the selection
+ * in the action bar. Previews are only recomputed once the player targets another block or a claim changes.
+ */
+public class SelectionPreviewTask implements Runnable {
+	/**
+	 * The number of ticks between two runs of the task.
+	 */
+	public static final int INTERVAL = 4;
+
+	private static final int MAX_TARGET_DISTANCE = 100;
+	private static final int MAX_CONFLICTS = 4;
+	private static final int KEEP_ALIVE_TICKS = 20;
+
+	private static final class State {
+		private final ArrayList<ClaimVisualization> visualizations = new ArrayList<>();
+		private InteractionHandler interaction;
+		private long target;
+		private int revision;
+		private long seen;
+	}
+
+	private final HashMap<UUID, State> states = new HashMap<>();
+	private long run = 0;
+
+	@Override
+	public void run() {
+		run++;
+
+		for (final var player : Bukkit.getOnlinePlayers()) {
+			final var user = User.fromMetadata(player);
+			if (user == null || user.currentInteraction == null || !isHoldingTool(player)) continue;
+
+			final var state = states.computeIfAbsent(player.getUniqueId(), k -> new State());
+			state.seen = run;
+
+			final var target = player.getTargetBlockExact(MAX_TARGET_DISTANCE, FluidCollisionMode.SOURCE_ONLY);
+			final var key = target == null ? Long.MIN_VALUE : AuroraUtil.blockKey(target.getX(), target.getY(), target.getZ());
+
+			if (state.interaction == user.currentInteraction && state.target == key && state.revision == Claim.revision) {
+				// Nothing changed, just keep the current preview alive
+				for (final var visualization : state.visualizations) {
+					Aurora.instance.visualizations.extend(visualization, KEEP_ALIVE_TICKS);
+				}
+
+				continue;
+			}
+
+			state.interaction = user.currentInteraction;
+			state.target = key;
+			state.revision = Claim.revision;
+			clear(state);
+
+			if (target == null) continue;
+
+			final var preview = user.currentInteraction.preview(player, target.getLocation());
+			if (preview == null) continue;
+
+			show(state, ClaimVisualization.create(
+					player, player.getWorld().getName(),
+					preview.minX(), preview.minY(), preview.minZ(),
+					preview.maxX(), preview.maxY(), preview.maxZ(),
+					preview.valid() ? VisualizationStyle.SELECTION : VisualizationStyle.CONFLICT
+			));
+
+			final var conflicts = preview.conflicts();
+			for (int i = 0; i < conflicts.size() && i < MAX_CONFLICTS; i++) {
+				show(state, ClaimVisualization.create(conflicts.get(i), player, VisualizationStyle.CONFLICT));
+			}
+
+			player.sendActionBar(LegacyComponentSerializer.legacySection().deserialize(preview.status()));
+		}
+
+		// Drop the previews of players who finished their interaction, put the tool away or left
+		final var iter = states.values().iterator();
+		while (iter.hasNext()) {
+			final var state = iter.next();
+			if (state.seen == run) continue;
+
+			clear(state);
+			iter.remove();
+		}
+	}
+
+	private static boolean isHoldingTool(final @NotNull Player player) {
+		final var tool = player.getInventory().getItemInMainHand().getType();
+		return tool == Aurora.instance.config.claimCreationTool || tool == Aurora.instance.config.subclaimCreationTool;
+	}
+
+	private static void show(final @NotNull State state, final @NotNull ClaimVisualization visualization) {
+		Aurora.instance.visualizations.add(visualization, KEEP_ALIVE_TICKS);
+		state.visualizations.add(visualization);
+	}
+
+	private static void clear(final @NotNull State state) {
+		for (final var visualization : state.visualizations) {
+			visualization.cancel();
+		}
+
+		state.visualizations.clear();
+	}
+}
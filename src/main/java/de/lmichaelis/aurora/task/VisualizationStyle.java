@@ -0,0 +1,43 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.task;
+
+import org.bukkit.Color;
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The colors and marker blocks used to visualize the different kinds of claims.
+ */
+public enum VisualizationStyle {
+	CLAIM(Color.BLUE, Material.GLOWSTONE, Material.GOLD_BLOCK),
+	ADMIN_CLAIM(Color.RED, Material.GLOWSTONE, Material.PUMPKIN),
+	SUBCLAIM(Color.GREEN, Material.IRON_BLOCK, Material.WHITE_WOOL),
+	SELECTION(Color.YELLOW, Material.SEA_LANTERN, Material.YELLOW_WOOL),
+	CONFLICT(Color.ORANGE, Material.REDSTONE_BLOCK, Material.NETHERRACK);
+
+	public final Color color;
+	public final Material cornerMaterial;
+	public final Material edgeMaterial;
+
+	private BlockData cornerBlock;
+	private BlockData edgeBlock;
+
+	VisualizationStyle(final @NotNull Color color, final @NotNull Material cornerMaterial,
+					   final @NotNull Material edgeMaterial) {
+		this.color = color;
+		this.cornerMaterial = cornerMaterial;
+		this.edgeMaterial = edgeMaterial;
+	}
+
+	public @NotNull BlockData getCornerBlock() {
+		if (cornerBlock == null) cornerBlock = cornerMaterial.createBlockData();
+		return cornerBlock;
+	}
+
+	public @NotNull BlockData getEdgeBlock() {
+		if (edgeBlock == null) edgeBlock = edgeMaterial.createBlockData();
+		return edgeBlock;
+	}
+}
@@ -0,0 +1,209 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.trace;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFertilizeEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockIgniteEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.hanging.HangingBreakByEntityEvent;
+import org.bukkit.event.hanging.HangingEvent;
+import org.bukkit.event.player.PlayerEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.raid.RaidTriggerEvent;
+import org.bukkit.event.vehicle.VehicleDamageEvent;
+import org.bukkit.event.vehicle.VehicleEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+
+/**
+ * Records every event handled by Aurora into an {@link EventTrace} after all plugins have processed it.
+ * Besides the event's type, world, position, actor and outcome some events record additional data:
+ * <ul>
+ *     <li><tt>BlockFromToEvent</tt>: The ordinal of the flow direction</li>
+ *     <li><tt>BlockPistonExtendEvent</tt>, <tt>BlockPistonRetractEvent</tt>: The ordinal of the direction
+ *         and the number of moved blocks shifted left by 8</li>
+ *     <li><tt>BlockExplodeEvent</tt>, <tt>EntityExplodeEvent</tt>: The number of blocks destroyed</li>
+ *     <li><tt>EntityDamageByEntityEvent</tt>: The ordinal of the damage cause and the ordinal of the
+ *         damaged entity's type shifted left by 8</li>
+ *     <li>Other entity events: The ordinal of the entity's type</li>
+ *     <li><tt>PlayerInteractEvent</tt>: The ordinal of the action</li>
+ * </ul>
+ */
+public final class EventRecorder implements Listener {
+	private final EventTrace trace;
+
+	// The event recorded last. Events which share their handler list with a subclass (i.e. block placement)
+	// are passed to the recorder once for every registered class.
+	private Event last = null;
+
+	private World world;
+	private int x, y, z;
+
+	private EventRecorder(final @NotNull EventTrace trace) {
+		this.trace = trace;
+	}
+
+	/**
+	 * Starts recording all events handled by the given listeners.
+	 *
+	 * @param plugin    The plugin to register the recorder for.
+	 * @param file      The trace file to write to.
+	 * @param capacity  The maximum number of events kept in the file.
+	 * @param listeners The listeners whose events to record.
+	 * @return The new recorder.
+	 * @throws IOException If the trace file can't be opened.
+	 */
+	public static @NotNull EventRecorder start(final @NotNull Plugin plugin, final @NotNull File file, final int capacity,
+											   final @NotNull Listener @NotNull [] listeners) throws IOException {
+		final var recorder = new EventRecorder(EventTrace.open(file, capacity));
+		final var types = new HashSet<Class<? extends Event>>();
+
+		for (final var listener : listeners) {
+			for (final var method : listener.getClass().getMethods()) {
+				if (!method.isAnnotationPresent(EventHandler.class) || method.getParameterCount() != 1) continue;
+
+				final var type = method.getParameterTypes()[0];
+				if (Event.class.isAssignableFrom(type)) types.add(type.asSubclass(Event.class));
+			}
+		}
+
+		final var pm = plugin.getServer().getPluginManager();
+		for (final var type : types) {
+			pm.registerEvent(type, recorder, EventPriority.MONITOR, (l, event) -> recorder.record(event), plugin, false);
+		}
+
+		return recorder;
+	}
+
+	/**
+	 * Stops recording and closes the trace file.
+	 *
+	 * @throws IOException If the trace file can't be closed.
+	 */
+	public void stop() throws IOException {
+		HandlerList.unregisterAll(this);
+		trace.close();
+	}
+
+	private void at(final @NotNull Block block) {
+		world = block.getWorld();
+		x = block.getX();
+		y = block.getY();
+		z = block.getZ();
+	}
+
+	private void at(final @NotNull Location location) {
+		world = location.getWorld();
+		x = location.getBlockX();
+		y = location.getBlockY();
+		z = location.getBlockZ();
+	}
+
+	private synchronized void record(final @NotNull Event event) {
+		if (event == last) return;
+		last = event;
+		world = null;
+		x = y = z = 0;
+
+		@Nullable Entity actor = null;
+		var aux = 0;
+
+		if (event instanceof final BlockFromToEvent e) {
+			at(e.getToBlock());
+			aux = e.getFace().ordinal();
+		} else if (event instanceof final BlockPistonExtendEvent e) {
+			at(e.getBlock());
+			aux = e.getDirection().ordinal() | e.getBlocks().size() << 8;
+		} else if (event instanceof final BlockPistonRetractEvent e) {
+			at(e.getBlock());
+			aux = e.getDirection().ordinal() | e.getBlocks().size() << 8;
+		} else if (event instanceof final BlockExplodeEvent e) {
+			at(e.getBlock());
+			aux = e.blockList().size();
+		} else if (event instanceof final BlockBreakEvent e) {
+			at(e.getBlock());
+			actor = e.getPlayer();
+		} else if (event instanceof final BlockPlaceEvent e) {
+			at(e.getBlock());
+			actor = e.getPlayer();
+		} else if (event instanceof final BlockFertilizeEvent e) {
+			at(e.getBlock());
+			actor = e.getPlayer();
+		} else if (event instanceof final BlockIgniteEvent e) {
+			at(e.getBlock());
+			actor = e.getIgnitingEntity();
+		} else if (event instanceof final BlockEvent e) {
+			at(e.getBlock());
+		} else if (event instanceof final EntityExplodeEvent e) {
+			at(e.getLocation());
+			actor = e.getEntity();
+			aux = e.blockList().size();
+		} else if (event instanceof final EntityDamageByEntityEvent e) {
+			at(e.getEntity().getLocation());
+			actor = e.getDamager();
+			aux = e.getCause().ordinal() | e.getEntityType().ordinal() << 8;
+		} else if (event instanceof final EntityEvent e) {
+			at(e.getEntity().getLocation());
+			actor = e.getEntity();
+			aux = e.getEntityType().ordinal();
+		} else if (event instanceof final PlayerInteractEvent e) {
+			final var block = e.getClickedBlock();
+			if (block != null) at(block);
+			else at(e.getPlayer().getLocation());
+
+			actor = e.getPlayer();
+			aux = e.getAction().ordinal();
+		} else if (event instanceof final PlayerEvent e) {
+			at(e.getPlayer().getLocation());
+			actor = e.getPlayer();
+		} else if (event instanceof final HangingEvent e) {
+			at(e.getEntity().getLocation());
+			if (e instanceof final HangingBreakByEntityEvent b) actor = b.getRemover();
+		} else if (event instanceof final VehicleEvent e) {
+			at(e.getVehicle().getLocation());
+			if (e instanceof final VehicleDamageEvent d) actor = d.getAttacker();
+		} else if (event instanceof final StructureGrowEvent e) {
+			at(e.getLocation());
+			actor = e.getPlayer();
+		} else if (event instanceof final RaidTriggerEvent e) {
+			at(e.getPlayer().getLocation());
+			actor = e.getPlayer();
+		}
+
+		trace.write(
+				event.getEventName(),
+				world == null ? null : world.getName(),
+				x, y, z,
+				actor == null ? null : actor.getUniqueId(),
+				actor instanceof Player,
+				aux,
+				event instanceof final Cancellable cancellable && cancellable.isCancelled()
+		);
+	}
+}
@@ -0,0 +1,236 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.trace;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A memory-mapped ring file of fixed-size event records. Once the file is full, the oldest records are
+ * overwritten. Event types and world names are stored once in a name table in the file's header and
+ * records only refer to them by index.
+ * <p>
+ * Layout (all values big-endian):
+ * <pre>
+ * header (4096 bytes)
+ *    0  int   magic ("AURT")
+ *    4  int   version
+ *    8  int   record size
+ *   12  int   capacity in records
+ *   16  long  number of records ever written
+ *  256  80 name slots of 48 bytes: byte kind (1 = event type, 2 = world), byte length, UTF-8 name
+ * records (48 bytes each)
+ *    0  long  time in milliseconds since the epoch
+ *    8  short event type slot
+ *   10  byte  world slot (255 if unknown)
+ *   11  byte  flags (1 = cancelled, 2 = actor is a player, 4 = has actor)
+ *   12  int   x, y, z
+ *   24  long  actor UUID (most and least significant bits)
+ *   40  int   event-specific data
+ *   44  int   reserved
+ * </pre>
+ */
+public final class EventTrace implements AutoCloseable {
+	public static final int MAGIC = 0x41555254;
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 4096;
+	public static final int RECORD_SIZE = 48;
+
+	private static final int NAMES_OFFSET = 256;
+	private static final int NAME_SLOTS = 80;
+	private static final int NAME_SLOT_SIZE = 48;
+	private static final int SEQUENCE_OFFSET = 16;
+	private static final byte KIND_TYPE = 1;
+	private static final byte KIND_WORLD = 2;
+	private static final int NO_SLOT = 255;
+
+	private static final byte FLAG_CANCELLED = 1;
+	private static final byte FLAG_PLAYER = 1 << 1;
+	private static final byte FLAG_ACTOR = 1 << 2;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final int capacity;
+	private final HashMap<String, Integer> typeSlots = new HashMap<>();
+	private final HashMap<String, Integer> worldSlots = new HashMap<>();
+	private final String[] names = new String[NAME_SLOTS];
+	private long sequence;
+
+	private EventTrace(final @NotNull FileChannel channel, final @NotNull MappedByteBuffer buffer) {
+		this.channel = channel;
+		this.buffer = buffer;
+		this.capacity = buffer.getInt(12);
+		this.sequence = buffer.getLong(SEQUENCE_OFFSET);
+
+		for (int slot = 0; slot < NAME_SLOTS; slot++) {
+			final var offset = NAMES_OFFSET + slot * NAME_SLOT_SIZE;
+			final var kind = buffer.get(offset);
+			if (kind == 0) continue;
+
+			final var bytes = new byte[buffer.get(offset + 1) & 0xFF];
+			buffer.get(offset + 2, bytes);
+			names[slot] = new String(bytes, StandardCharsets.UTF_8);
+			(kind == KIND_TYPE ? typeSlots : worldSlots).put(names[slot], slot);
+		}
+	}
+
+	/**
+	 * Opens the given trace file for writing. An existing trace with the same capacity is continued,
+	 * otherwise the file is overwritten.
+	 *
+	 * @param file     The file to write to.
+	 * @param capacity The maximum number of records in the file, at least one.
+	 * @return The opened trace.
+	 * @throws IOException If the file can't be created or mapped.
+	 */
+	public static @NotNull EventTrace open(final @NotNull File file, final int capacity) throws IOException {
+		if (capacity < 1) throw new IllegalArgumentException("A trace has to hold at least one record");
+
+		final var channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		final var size = HEADER_SIZE + (long) capacity * RECORD_SIZE;
+		final var reuse = channel.size() == size;
+		final var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+		if (!reuse || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != RECORD_SIZE) {
+			buffer.put(0, new byte[HEADER_SIZE]);
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(4, VERSION);
+			buffer.putInt(8, RECORD_SIZE);
+			buffer.putInt(12, capacity);
+			buffer.putLong(SEQUENCE_OFFSET, 0);
+		}
+
+		return new EventTrace(channel, buffer);
+	}
+
+	/**
+	 * Reads all records of the given trace file, oldest first.
+	 *
+	 * @param file The file to read.
+	 * @return The records in the file.
+	 * @throws IOException If the file can't be read or is not a trace.
+	 */
+	public static @NotNull List<TraceRecord> read(final @NotNull File file) throws IOException {
+		try (final var channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			final var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != RECORD_SIZE) {
+				throw new IOException("%s is not a version %d event trace".formatted(file, VERSION));
+			}
+
+			final var names = new String[NAME_SLOTS];
+			for (int slot = 0; slot < NAME_SLOTS; slot++) {
+				final var offset = NAMES_OFFSET + slot * NAME_SLOT_SIZE;
+				if (buffer.get(offset) == 0) continue;
+
+				final var bytes = new byte[buffer.get(offset + 1) & 0xFF];
+				buffer.get(offset + 2, bytes);
+				names[slot] = new String(bytes, StandardCharsets.UTF_8);
+			}
+
+			final var capacity = buffer.getInt(12);
+			final var sequence = buffer.getLong(SEQUENCE_OFFSET);
+			final var count = (int) Math.min(sequence, capacity);
+			final var records = new ArrayList<TraceRecord>(count);
+
+			for (long i = sequence - count; i < sequence; i++) {
+				final var offset = HEADER_SIZE + (int) (i % capacity) * RECORD_SIZE;
+				final var flags = buffer.get(offset + 11);
+				final var world = buffer.get(offset + 10) & 0xFF;
+				final var typeSlot = buffer.getShort(offset + 8);
+				final var type = typeSlot < NAME_SLOTS ? names[typeSlot] : null;
+
+				records.add(new TraceRecord(
+						buffer.getLong(offset),
+						type == null ? "unknown" : type,
+						world == NO_SLOT ? null : names[world],
+						buffer.getInt(offset + 12),
+						buffer.getInt(offset + 16),
+						buffer.getInt(offset + 20),
+						(flags & FLAG_ACTOR) != 0 ? new UUID(buffer.getLong(offset + 24), buffer.getLong(offset + 32)) : null,
+						(flags & FLAG_PLAYER) != 0,
+						buffer.getInt(offset + 40),
+						(flags & FLAG_CANCELLED) != 0
+				));
+			}
+
+			return records;
+		}
+	}
+
+	/**
+	 * Appends a record to the trace, overwriting the oldest one if the trace is full.
+	 *
+	 * @param type      The name of the event type.
+	 * @param world     The name of the world or <tt>null</tt> if unknown.
+	 * @param x         The x-coordinate of the event.
+	 * @param y         The y-coordinate of the event.
+	 * @param z         The z-coordinate of the event.
+	 * @param actor     The actor of the event or <tt>null</tt> if there is none.
+	 * @param isPlayer  Whether the actor is a player.
+	 * @param aux       Additional, event-specific data.
+	 * @param cancelled Whether the event was cancelled.
+	 */
+	public synchronized void write(final @NotNull String type, final @Nullable String world,
+								   final int x, final int y, final int z, final @Nullable UUID actor,
+								   final boolean isPlayer, final int aux, final boolean cancelled) {
+		final var offset = HEADER_SIZE + (int) (sequence % capacity) * RECORD_SIZE;
+		final var flags = (cancelled ? FLAG_CANCELLED : 0) | (isPlayer ? FLAG_PLAYER : 0) | (actor != null ? FLAG_ACTOR : 0);
+
+		buffer.putLong(offset, System.currentTimeMillis());
+		buffer.putShort(offset + 8, (short) slotOf(type, KIND_TYPE, typeSlots));
+		buffer.put(offset + 10, (byte) (world == null ? NO_SLOT : slotOf(world, KIND_WORLD, worldSlots)));
+		buffer.put(offset + 11, (byte) flags);
+		buffer.putInt(offset + 12, x);
+		buffer.putInt(offset + 16, y);
+		buffer.putInt(offset + 20, z);
+		buffer.putLong(offset + 24, actor == null ? 0 : actor.getMostSignificantBits());
+		buffer.putLong(offset + 32, actor == null ? 0 : actor.getLeastSignificantBits());
+		buffer.putInt(offset + 40, aux);
+
+		buffer.putLong(SEQUENCE_OFFSET, ++sequence);
+	}
+
+	private int slotOf(final @NotNull String name, final byte kind, final @NotNull HashMap<String, Integer> slots) {
+		final var existing = slots.get(name);
+		if (existing != null) return existing;
+
+		for (int slot = 0; slot < NAME_SLOTS; slot++) {
+			if (names[slot] != null) continue;
+
+			final var bytes = name.getBytes(StandardCharsets.UTF_8);
+			final var length = Math.min(bytes.length, NAME_SLOT_SIZE - 2);
+			final var offset = NAMES_OFFSET + slot * NAME_SLOT_SIZE;
+
+			buffer.put(offset, kind);
+			buffer.put(offset + 1, (byte) length);
+			buffer.put(offset + 2, bytes, 0, length);
+
+			names[slot] = name;
+			slots.put(name, slot);
+			return slot;
+		}
+
+		// The name table is full, which only happens with lots of worlds
+		slots.put(name, NO_SLOT);
+		return NO_SLOT;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		buffer.force();
+		channel.close();
+	}
+}
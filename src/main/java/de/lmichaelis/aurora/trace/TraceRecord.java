@@ -0,0 +1,26 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.trace;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * A single event read back from an {@link EventTrace}.
+ *
+ * @param time      The time the event was handled at in milliseconds since the epoch.
+ * @param type      The name of the event's class (i.e. <tt>BlockFromToEvent</tt>).
+ * @param world     The name of the world the event happened in or <tt>null</tt> if unknown.
+ * @param x         The x-coordinate of the block or entity the event happened at.
+ * @param y         The y-coordinate of the block or entity the event happened at.
+ * @param z         The z-coordinate of the block or entity the event happened at.
+ * @param actor     The player or entity causing the event or <tt>null</tt> if there is none.
+ * @param isPlayer  Whether the actor is a player.
+ * @param aux       Additional, event-specific data. See {@link EventRecorder}.
+ * @param cancelled Whether the event was cancelled.
+ */
+public record TraceRecord(long time, @NotNull String type, @Nullable String world, int x, int y, int z,
+						  @Nullable UUID actor, boolean isPlayer, int aux, boolean cancelled) {
+}
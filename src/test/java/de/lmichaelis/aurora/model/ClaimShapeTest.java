@@ -0,0 +1,169 @@
+// Copyright (c) 2022. Luis Michaelis
+// SPDX-License-Identifier: LGPL-3.0-only
+package de.lmichaelis.aurora.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClaimShapeTest {
+	// A U-shape crossing the chunk borders at x = 0, x = 16 and z = 0 with its opening at positive z
+	private static final ClaimShape U = ClaimShape.polygon(-8, -8, 24, -8, 24, 24, 16, 24, 16, 0, 0, 0, 0, 24, -8, 24);
+
+	@Test
+	public void testConcavePolygonContains() {
+		assertTrue(U.contains(8, -8));
+		assertTrue(U.contains(-4, 20));
+		assertTrue(U.contains(20, 20));
+
+		// Columns inside the notch
+		assertFalse(U.contains(8, 8));
+		assertFalse(U.contains(1, 1));
+		assertFalse(U.contains(15, 24));
+
+		// Columns on edges and corners are part of the polygon
+		assertTrue(U.contains(8, 0));
+		assertTrue(U.contains(0, 12));
+		assertTrue(U.contains(16, 24));
+		assertTrue(U.contains(-8, 24));
+
+		assertFalse(U.contains(-9, 0));
+		assertFalse(U.contains(0, 25));
+		assertEquals(33 * 9 + 2 * 9 * 24, U.area());
+	}
+
+	@Test
+	public void testDiagonalPolygonContains() {
+		final var triangle = ClaimShape.polygon(0, 0, 10, 0, 0, 10);
+
+		assertTrue(triangle.contains(3, 3));
+		assertTrue(triangle.contains(5, 5));
+		assertFalse(triangle.contains(6, 5));
+		assertFalse(triangle.contains(10, 10));
+		assertEquals(66, triangle.area());
+	}
+
+	@Test
+	public void testCornersOnChunkBoundaries() {
+		final var square = ClaimShape.polygon(-16, -16, 15, -16, 15, 15, -16, 15);
+
+		assertTrue(square.contains(-16, -16));
+		assertTrue(square.contains(15, 15));
+		assertTrue(square.contains(-1, 0));
+		assertFalse(square.contains(-17, 0));
+		assertFalse(square.contains(16, 0));
+		assertFalse(square.contains(0, -17));
+		assertEquals(32 * 32, square.area());
+
+		final var diamond = ClaimShape.polygon(0, -16, 16, 0, 0, 16, -16, 0);
+		assertTrue(diamond.contains(0, -16));
+		assertTrue(diamond.contains(-8, -8));
+		assertTrue(diamond.contains(15, 1));
+		assertFalse(diamond.contains(-9, -8));
+		assertFalse(diamond.contains(15, 15));
+	}
+
+	@Test
+	public void testBoxesContains() {
+		final var shape = ClaimShape.boxes(10, 10, 0, 0).withBox(-20, -5, -11, 5);
+
+		assertTrue(shape.contains(0, 0));
+		assertTrue(shape.contains(10, 10));
+		assertTrue(shape.contains(-20, 5));
+		assertFalse(shape.contains(-5, 0));
+		assertFalse(shape.contains(11, 0));
+		assertEquals(11 * 11 + 10 * 11, shape.area());
+	}
+
+	@Test
+	public void testOverlapsArea() {
+		assertFalse(U.overlaps(4, 4, 12, 24));
+		assertTrue(U.overlaps(4, -2, 12, 12));
+		assertTrue(U.overlaps(-100, 10, 100, 10));
+		assertFalse(U.overlaps(25, -100, 100, 100));
+	}
+
+	@Test
+	public void testEnclosesArea() {
+		assertTrue(U.encloses(-8, -8, 24, 0));
+		assertTrue(U.encloses(-8, -8, 0, 24));
+		assertTrue(U.encloses(16, 1, 24, 24));
+		assertFalse(U.encloses(-8, -8, 24, 1));
+		assertFalse(U.encloses(-9, -8, 0, 0));
+		assertFalse(U.encloses(4, 4, 12, 12));
+	}
+
+	@Test
+	public void testOverlapsShape() {
+		assertFalse(U.overlaps(ClaimShape.boxes(2, 2, 14, 30)));
+		assertTrue(U.overlaps(ClaimShape.boxes(2, 2, 14, 30, 0, 5, 0, 5)));
+		assertTrue(ClaimShape.boxes(-100, -100, -8, -8).overlaps(U));
+		assertFalse(ClaimShape.polygon(1, 1, 15, 1, 8, 30).overlaps(U));
+	}
+
+	@Test
+	public void testIsSimple() {
+		assertTrue(U.isSimple());
+		assertTrue(ClaimShape.boxes(0, 0, 10, 10, 5, 5, 20, 20).isSimple());
+
+		// Crossing edges
+		assertFalse(ClaimShape.polygon(0, 0, 10, 10, 10, 0, 0, 10).isSimple());
+
+		// A corner in the middle of a straight edge is fine
+		assertTrue(ClaimShape.polygon(0, 0, 5, 0, 10, 0, 10, 10, 0, 10).isSimple());
+
+		// A corner touching an edge it isn't part of
+		assertFalse(ClaimShape.polygon(0, 0, 10, 0, 10, 10, 5, 0, 0, 10).isSimple());
+		assertFalse(ClaimShape.polygon(0, 0, 10, 0, 10, 10, 0, 10, 0, -5).isSimple());
+
+		// Edges running back along each other, including the closing edge
+		assertFalse(ClaimShape.polygon(0, 0, 10, 0, 5, 0, 5, 10).isSimple());
+		assertFalse(ClaimShape.polygon(0, 0, 10, 0, 10, 10, 0, 10, 0, 20).isSimple());
+
+		// Repeated corners
+		assertFalse(ClaimShape.polygon(0, 0, 10, 0, 10, 0, 10, 10).isSimple());
+		assertFalse(ClaimShape.polygon(0, 0, 10, 0, 10, 10, 0, 0).isSimple());
+	}
+
+	@Test
+	public void testSquaredDistance() {
+		final var boxes = ClaimShape.boxes(0, 0, 10, 10, 30, 0, 40, 10);
+
+		assertEquals(0, boxes.squaredDistance(5, 5, 6, 6));
+		assertEquals(100, boxes.squaredDistance(20, 0, 20, 0));
+		assertEquals(125, boxes.squaredDistance(15, 20, 15, 20));
+
+		// Inside the notch, the closest columns are on the arms and not the bounding box
+		assertEquals(0, U.squaredDistance(-100, 10, 100, 10));
+		assertEquals(64, U.squaredDistance(8, 20, 8, 20));
+		assertEquals(4, U.squaredDistance(2, 8, 14, 30));
+		assertEquals(4 * 4 + 4 * 4, U.squaredDistance(28, 28, 40, 40));
+	}
+
+	@Test
+	public void testSerializeRoundTrip() {
+		assertEquals("BOXES:0,0,10,10,-20,-5,-11,5", ClaimShape.boxes(10, 10, 0, 0, -11, 5, -20, -5).serialize());
+		assertEquals("POLYGON:-8,-8,24,-8,24,24,16,24,16,0,0,0,0,24,-8,24", U.serialize());
+
+		for (final var shape : new ClaimShape[]{U, ClaimShape.boxes(-20, -5, -11, 5, 0, 0, 10, 10)}) {
+			final var parsed = ClaimShape.parse(shape.serialize());
+
+			assertEquals(shape.kind, parsed.kind);
+			assertEquals(shape.serialize(), parsed.serialize());
+			assertEquals(shape.area(), parsed.area());
+
+			for (int x = shape.minX - 2; x <= shape.maxX + 2; x++) {
+				for (int z = shape.minZ - 2; z <= shape.maxZ + 2; z++) {
+					assertEquals(shape.contains(x, z), parsed.contains(x, z));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testInvalidShapes() {
+		assertThrows(IllegalArgumentException.class, () -> ClaimShape.polygon(0, 0, 10, 0));
+		assertThrows(IllegalArgumentException.class, () -> ClaimShape.boxes(0, 0, 10));
+		assertThrows(IllegalStateException.class, () -> U.withBox(0, 0, 1, 1));
+	}
+}